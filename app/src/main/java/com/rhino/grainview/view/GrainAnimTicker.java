@@ -0,0 +1,212 @@
+package com.rhino.grainview.view;
+
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * <p>The process wide ticker of grain anim.</p>
+ * <p>All registered clients are advanced from one frame callback, so their invalidations
+ * are batched into the same frame. It must only be used on the UI thread.</p>
+ **/
+public class GrainAnimTicker {
+
+    /**
+     * The delay time of frame when Choreographer is not available.(ms)
+     */
+    private static final int DEFAULT_REFRESH_DELAY_TIME = 16;
+
+    /**
+     * The client of ticker.
+     */
+    public interface Client {
+        /**
+         * Called once per frame while registered.
+         *
+         * @param frameTimeNanos the time of this frame.(ns)
+         */
+        void onTick(long frameTimeNanos);
+    }
+
+    private static GrainAnimTicker sInstance;
+
+    /**
+     * The registered clients, a client removed while dispatching is set to null first.
+     */
+    private final ArrayList<Client> mClients = new ArrayList<>();
+    /**
+     * The time origin of shared phase.(ns)
+     */
+    private final long mEpochNanos = System.nanoTime();
+    /**
+     * The frame callback, driven by vsync.
+     */
+    private TickFrameCallback mTickFrameCallback;
+    /**
+     * The runnable when Choreographer is not available.
+     */
+    private TickRunnable mTickRunnable;
+    /**
+     * The Handler of UI thread for the runnable.
+     */
+    private Handler mHandler;
+    /**
+     * Whether the next frame is scheduled.
+     */
+    private boolean mIsScheduled;
+    /**
+     * Whether dispatching ticks.
+     */
+    private boolean mIsDispatching;
+    /**
+     * Whether any client was removed while dispatching.
+     */
+    private boolean mHasPendingRemoval;
+
+    private GrainAnimTicker() {
+    }
+
+    /**
+     * Return the process wide instance.
+     *
+     * @return GrainAnimTicker
+     */
+    public static GrainAnimTicker getInstance() {
+        if (null == sInstance) {
+            sInstance = new GrainAnimTicker();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Register the client, it is ticked from the next frame.
+     *
+     * @param client the Client
+     */
+    public void register(@NonNull Client client) {
+        if (mClients.contains(client)) {
+            return;
+        }
+        mClients.add(client);
+        if (!mIsScheduled) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Unregister the client.
+     *
+     * @param client the Client
+     */
+    public void unregister(@NonNull Client client) {
+        int index = mClients.indexOf(client);
+        if (0 > index) {
+            return;
+        }
+        if (mIsDispatching) {
+            mClients.set(index, null);
+            mHasPendingRemoval = true;
+        } else {
+            mClients.remove(index);
+            if (mClients.isEmpty()) {
+                cancelFrame();
+            }
+        }
+    }
+
+    /**
+     * Return the count of registered clients.
+     *
+     * @return the count
+     */
+    public int getClientCount() {
+        return mClients.size();
+    }
+
+    /**
+     * Return the time elapsed since the origin of shared phase. Clients computing their
+     * position from it stay in the same phase.
+     *
+     * @param frameTimeNanos the time of frame.(ns)
+     * @return the elapsed time.(ns)
+     */
+    public long getSharedElapsedNanos(long frameTimeNanos) {
+        return frameTimeNanos - mEpochNanos;
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        mIsScheduled = false;
+        mIsDispatching = true;
+        int count = mClients.size();
+        for (int i = 0; i < count; i++) {
+            Client client = mClients.get(i);
+            if (null != client) {
+                client.onTick(frameTimeNanos);
+            }
+        }
+        mIsDispatching = false;
+        if (mHasPendingRemoval) {
+            mHasPendingRemoval = false;
+            while (mClients.remove(null)) {
+                // remove all clients unregistered while dispatching
+            }
+        }
+        // a client registered while dispatching has already scheduled the next frame
+        if (mClients.isEmpty()) {
+            cancelFrame();
+        } else if (!mIsScheduled) {
+            scheduleFrame();
+        }
+    }
+
+    private void scheduleFrame() {
+        mIsScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (null == mTickFrameCallback) {
+                mTickFrameCallback = new TickFrameCallback();
+            }
+            Choreographer.getInstance().postFrameCallback(mTickFrameCallback);
+        } else {
+            if (null == mTickRunnable) {
+                mTickRunnable = new TickRunnable();
+                mHandler = new Handler(Looper.getMainLooper());
+            }
+            mHandler.postDelayed(mTickRunnable, DEFAULT_REFRESH_DELAY_TIME);
+        }
+    }
+
+    private void cancelFrame() {
+        mIsScheduled = false;
+        if (null != mTickFrameCallback) {
+            Choreographer.getInstance().removeFrameCallback(mTickFrameCallback);
+        }
+        if (null != mTickRunnable) {
+            mHandler.removeCallbacks(mTickRunnable);
+        }
+    }
+
+    /**
+     * The frame callback, driven by vsync.
+     */
+    private class TickFrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            GrainAnimTicker.this.doFrame(frameTimeNanos);
+        }
+    }
+
+    /**
+     * The runnable when Choreographer is not available.
+     */
+    private class TickRunnable implements Runnable {
+        @Override
+        public void run() {
+            doFrame(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.rhino.grainview.view;
+
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.rhino.grainview.view.geometry.GrainBakedGeometry;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>The {@link GrainBakedGeometry} shipped in the assets, baked by the
+ * <code>bakeGrainGeometry</code> task and committed.</p>
+ * <p>The asset is stored uncompressed and memory mapped, so nothing is read until a baked
+ * size is drawn. Without the asset every size falls back to live computation.</p>
+ **/
+public class GrainBakedGeometryAsset {
+
+    /**
+     * The name of asset.
+     */
+    public static final String ASSET_NAME = "grain_geometry.bin";
+
+    private static final String TAG = "GrainBakedGeometry";
+
+    private static GrainBakedGeometry sBakedGeometry;
+    private static boolean sIsLoaded;
+
+    private GrainBakedGeometryAsset() {
+    }
+
+    /**
+     * Map the asset once and return it. The first call opens the assets, so it belongs on
+     * a background thread, see {@link GrainGeometryLoader#loadBakedGeometry(Context)}.
+     *
+     * @param ctx the context
+     * @return GrainBakedGeometry, null when there is no usable asset
+     */
+    @Nullable
+    public static synchronized GrainBakedGeometry get(@NonNull Context ctx) {
+        if (!sIsLoaded) {
+            sIsLoaded = true;
+            sBakedGeometry = map(ctx.getApplicationContext());
+        }
+        return sBakedGeometry;
+    }
+
+    /**
+     * Return the asset mapped by {@link #get(Context)} without touching the assets.
+     *
+     * @return GrainBakedGeometry, null when not mapped or there is no usable asset
+     */
+    @Nullable
+    public static synchronized GrainBakedGeometry peek() {
+        return sBakedGeometry;
+    }
+
+    /**
+     * Return whether {@link #get(Context)} has been called.
+     *
+     * @return true loaded, false not loaded
+     */
+    public static synchronized boolean isLoaded() {
+        return sIsLoaded;
+    }
+
+    private static GrainBakedGeometry map(Context ctx) {
+        AssetFileDescriptor afd = null;
+        try {
+            // openFd only works for assets stored uncompressed, see aaptOptions in build.gradle
+            afd = ctx.getAssets().openFd(ASSET_NAME);
+            FileInputStream stream = afd.createInputStream();
+            FileChannel channel = stream.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    afd.getStartOffset(), afd.getLength());
+            return new GrainBakedGeometry(buffer);
+        } catch (IOException e) {
+            // no asset baked
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Bad baked geometry, compute all sizes live", e);
+        } finally {
+            if (null != afd) {
+                try {
+                    afd.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,351 @@
+package com.rhino.grainview.view;
+
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+
+/**
+ * <p>The grain of {@link GrainView} as a Drawable, for ImageViews, backgrounds and list items.</p>
+ * <p>All drawables created from one {@link ConstantState}, mutated or not, share its colors
+ * and speed. Each drawable takes the immutable {@link GrainPathSet} of its own bounds from the
+ * process wide {@link GrainGeometryCache}, so drawables of different sizes share the Paths of
+ * a size without taking them from each other. The flow light runs through {@link Animatable},
+ * ticked by {@link GrainAnimTicker} while started and visible.</p>
+ **/
+public class GrainDrawable extends Drawable implements Animatable {
+
+    /**
+     * The state shared with the drawables of the same ConstantState.
+     */
+    private GrainState mState;
+    /**
+     * The immutable Paths of the bounds, taken from the process wide cache.
+     */
+    private GrainPathSet mPathSet;
+    /**
+     * Whether mutated.
+     */
+    private boolean mMutated;
+    /**
+     * The paint of bands.
+     */
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    /**
+     * The gradient of flow light.
+     */
+    private final GrainFlowLightGradient mFlowLightGradient = new GrainFlowLightGradient();
+    /**
+     * The alpha of drawable.
+     */
+    private int mAlpha = 255;
+    /**
+     * Whether the anim started.
+     */
+    private boolean mIsAnimStarted;
+    /**
+     * Whether registered with the ticker.
+     */
+    private boolean mIsAnimRunning;
+    /**
+     * The elapsed time of shared anim clock at the last tick.(ns)
+     */
+    private long mElapsedNanos;
+    /**
+     * The client of anim ticker.
+     */
+    private final GrainAnimTicker.Client mAnimClient = new GrainAnimTicker.Client() {
+        @Override
+        public void onTick(long frameTimeNanos) {
+            mElapsedNanos = GrainAnimTicker.getInstance().getSharedElapsedNanos(frameTimeNanos);
+            invalidateSelf();
+        }
+    };
+
+    public GrainDrawable(@NonNull Context ctx) {
+        this(new GrainState(ctx.getResources().getDisplayMetrics().density));
+    }
+
+    private GrainDrawable(GrainState state) {
+        this.mState = state;
+        this.mPaint.setStyle(Paint.Style.FILL);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        ensurePathSet(bounds.width(), bounds.height());
+    }
+
+    /**
+     * Return the Paths of the size, taken from the process wide cache when the size changed.
+     *
+     * @return GrainPathSet, null when the size is empty
+     */
+    private GrainPathSet ensurePathSet(int width, int height) {
+        if (0 >= width || 0 >= height) {
+            return null;
+        }
+        if (null == mPathSet || mPathSet.getWidth() != width || mPathSet.getHeight() != height) {
+            mPathSet = GrainGeometryCache.getInstance().get(width, height, mState.mDensity);
+        }
+        return mPathSet;
+    }
+
+    /**
+     * Return the Paths drawn.
+     *
+     * @return GrainPathSet, null before the bounds are set
+     */
+    GrainPathSet getPathSet() {
+        return mPathSet;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        Rect bounds = getBounds();
+        GrainPathSet pathSet = ensurePathSet(bounds.width(), bounds.height());
+        if (null == pathSet) {
+            return;
+        }
+        int height = bounds.height();
+        canvas.save();
+        canvas.translate(bounds.left, bounds.top + height / 2);
+
+        mPaint.setColor(mState.mGrainColor);
+        mPaint.setAlpha((mState.mGrainColor >>> 24) * mAlpha / 255);
+        if (!canvas.quickReject(pathSet.getBounds(), Canvas.EdgeType.AA)) {
+            canvas.drawPath(pathSet.getClipPath(), mPaint);
+        }
+
+        if (mIsAnimStarted) {
+            drawFlowLight(canvas, pathSet, bounds.width(), height);
+        }
+        canvas.restore();
+    }
+
+    /**
+     * Draw the flow light clipped by all bands, placed by the shared anim clock.
+     */
+    private void drawFlowLight(Canvas canvas, GrainPathSet pathSet, int width, int height) {
+        int lightWidth = 2 * (int) (GrainFlowLightGradient.DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT * height);
+        float speed = mState.mFlowLightSpeed;
+        if (0 >= lightWidth || 0 >= width || 0 >= speed) {
+            return;
+        }
+        float period = width + lightWidth;
+        long periodNanos = (long) (period / speed * 1000000000L);
+        float left = (mElapsedNanos % periodNanos) / 1000000000f * speed - lightWidth;
+
+        Paint paint = mFlowLightGradient.update(lightWidth, mState.mFlowLightColors, left);
+        paint.setAlpha(mAlpha);
+        mFlowLightGradient.draw(canvas, pathSet.getClipPath(), left, -height / 2, left + lightWidth,
+                height - height / 2);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mAlpha != alpha) {
+            mAlpha = alpha;
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        mFlowLightGradient.getPaint().setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    /**
+     * Set the color of grain.
+     *
+     * @param color the color
+     */
+    public void setGrainColor(@ColorInt int color) {
+        if (mState.mGrainColor != color) {
+            mState.mGrainColor = color;
+            invalidateSelf();
+        }
+    }
+
+    /**
+     * Return the color of grain.
+     *
+     * @return the color
+     */
+    @ColorInt
+    public int getGrainColor() {
+        return mState.mGrainColor;
+    }
+
+    /**
+     * Set the colors of flow light gradient, at least 2 colors.
+     *
+     * @param colors the colors
+     */
+    public void setFlowLightColors(@ColorInt int... colors) {
+        if (null == colors || 2 > colors.length) {
+            throw new IllegalArgumentException("needs at least 2 colors");
+        }
+        mState.mFlowLightColors = colors.clone();
+        invalidateSelf();
+    }
+
+    /**
+     * Set the speed of flow light.
+     *
+     * @param speed the speed.(px/s)
+     */
+    public void setFlowLightSpeed(float speed) {
+        mState.mFlowLightSpeed = Math.max(0, speed);
+    }
+
+    /**
+     * Return the speed of flow light.
+     *
+     * @return the speed.(px/s)
+     */
+    public float getFlowLightSpeed() {
+        return mState.mFlowLightSpeed;
+    }
+
+    @Override
+    public void start() {
+        if (mIsAnimStarted) {
+            return;
+        }
+        mIsAnimStarted = true;
+        updateAnimRunning();
+        invalidateSelf();
+    }
+
+    @Override
+    public void stop() {
+        if (!mIsAnimStarted) {
+            return;
+        }
+        mIsAnimStarted = false;
+        updateAnimRunning();
+        invalidateSelf();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mIsAnimStarted;
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        updateAnimRunning();
+        return changed;
+    }
+
+    /**
+     * Tick anim only while it is started and visible, pause it otherwise.
+     */
+    private void updateAnimRunning() {
+        boolean running = mIsAnimStarted && isVisible();
+        if (mIsAnimRunning == running) {
+            return;
+        }
+        mIsAnimRunning = running;
+        if (running) {
+            GrainAnimTicker.getInstance().register(mAnimClient);
+        } else {
+            GrainAnimTicker.getInstance().unregister(mAnimClient);
+        }
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+        return super.getChangingConfigurations() | mState.mChangingConfigurations;
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        mState.mChangingConfigurations = getChangingConfigurations();
+        return mState;
+    }
+
+    @NonNull
+    @Override
+    public Drawable mutate() {
+        if (!mMutated && super.mutate() == this) {
+            mState = new GrainState(mState);
+            mMutated = true;
+        }
+        return this;
+    }
+
+    /**
+     * The state of grain drawable. A mutated drawable copies the colors and speed.
+     */
+    static final class GrainState extends ConstantState {
+        /**
+         * The density of display.
+         */
+        private final float mDensity;
+        private int mGrainColor = GrainFlowLightGradient.DEFAULT_GRAIN_COLOR;
+        private int[] mFlowLightColors = GrainFlowLightGradient.DEFAULT_FLOW_LIGHT_COLORS;
+        private float mFlowLightSpeed = GrainFlowLightGradient.DEFAULT_FLOW_LIGHT_SPEED;
+        private int mChangingConfigurations;
+
+        GrainState(float density) {
+            this.mDensity = density;
+        }
+
+        GrainState(GrainState orig) {
+            this.mDensity = orig.mDensity;
+            this.mGrainColor = orig.mGrainColor;
+            this.mFlowLightColors = orig.mFlowLightColors;
+            this.mFlowLightSpeed = orig.mFlowLightSpeed;
+            this.mChangingConfigurations = orig.mChangingConfigurations;
+        }
+
+        @NonNull
+        @Override
+        public Drawable newDrawable() {
+            return new GrainDrawable(this);
+        }
+
+        @NonNull
+        @Override
+        public Drawable newDrawable(Resources res) {
+            if (null == res || res.getDisplayMetrics().density == mDensity) {
+                return new GrainDrawable(this);
+            }
+            GrainState state = new GrainState(res.getDisplayMetrics().density);
+            state.mGrainColor = mGrainColor;
+            state.mFlowLightColors = mFlowLightColors;
+            state.mFlowLightSpeed = mFlowLightSpeed;
+            state.mChangingConfigurations = mChangingConfigurations;
+            return new GrainDrawable(state);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return mChangingConfigurations;
+        }
+    }
+}
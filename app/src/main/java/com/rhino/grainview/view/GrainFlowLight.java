@@ -0,0 +1,188 @@
+package com.rhino.grainview.view;
+
+
+import android.support.annotation.ColorInt;
+
+/**
+ * <p>One flow light of {@link GrainView}, sweeping across the grain with its own speed,
+ * width, color and direction.</p>
+ * <p>The light fades in from its edges to the color at its center, the alpha of the color is
+ * the alpha at the center. All lights of a view are composed into one strip and drawn in one
+ * clipped pass, see {@link GrainFlowLightStrip}.</p>
+ **/
+public class GrainFlowLight {
+
+    /**
+     * Sweep from left to right.
+     */
+    public static final int DIRECTION_LEFT_TO_RIGHT = 0;
+    /**
+     * Sweep from right to left.
+     */
+    public static final int DIRECTION_RIGHT_TO_LEFT = 1;
+
+    /**
+     * The speed.(px/s)
+     */
+    private final float mSpeed;
+    /**
+     * The width.(px)
+     */
+    private final int mWidth;
+    /**
+     * The color at center.
+     */
+    private final int mColor;
+    /**
+     * The direction, {@link #DIRECTION_LEFT_TO_RIGHT} or {@link #DIRECTION_RIGHT_TO_LEFT}.
+     */
+    private final int mDirection;
+    /**
+     * The left of light in the view, kept as float so slow speed is not lost to rounding.(px)
+     */
+    private float mX;
+    /**
+     * The left of light when last drawn.(px)
+     */
+    private int mDrawnLeft;
+
+    /**
+     * @param speed     the speed.(px/s)
+     * @param width     the width.(px)
+     * @param color     the color at center
+     * @param direction {@link #DIRECTION_LEFT_TO_RIGHT} or {@link #DIRECTION_RIGHT_TO_LEFT}
+     */
+    public GrainFlowLight(float speed, int width, @ColorInt int color, int direction) {
+        if (0 > speed) {
+            throw new IllegalArgumentException("speed < 0");
+        }
+        if (0 >= width) {
+            throw new IllegalArgumentException("width <= 0");
+        }
+        if (DIRECTION_LEFT_TO_RIGHT != direction && DIRECTION_RIGHT_TO_LEFT != direction) {
+            throw new IllegalArgumentException("Unknown direction " + direction);
+        }
+        this.mSpeed = speed;
+        this.mWidth = width;
+        this.mColor = color;
+        this.mDirection = direction;
+    }
+
+    /**
+     * Return the speed.
+     *
+     * @return the speed.(px/s)
+     */
+    public float getSpeed() {
+        return mSpeed;
+    }
+
+    /**
+     * Return the width.
+     *
+     * @return the width.(px)
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Return the color at center.
+     *
+     * @return the color
+     */
+    @ColorInt
+    public int getColor() {
+        return mColor;
+    }
+
+    /**
+     * Return the direction.
+     *
+     * @return {@link #DIRECTION_LEFT_TO_RIGHT} or {@link #DIRECTION_RIGHT_TO_LEFT}
+     */
+    public int getDirection() {
+        return mDirection;
+    }
+
+    /**
+     * Return the left of light in the view, rounded to pixel.
+     *
+     * @return the left.(px)
+     */
+    int getLeft() {
+        return (int) mX;
+    }
+
+    /**
+     * Return the left of light when last drawn.
+     *
+     * @return the left.(px)
+     */
+    int getDrawnLeft() {
+        return mDrawnLeft;
+    }
+
+    /**
+     * Record the current left of light as drawn.
+     *
+     * @return the drawn left.(px)
+     */
+    int markDrawn() {
+        mDrawnLeft = (int) mX;
+        return mDrawnLeft;
+    }
+
+    /**
+     * Move the light to the phase of its sweep.
+     *
+     * @param viewWidth the width of view
+     * @param phase     the phase, 0 is the light just outside the view where it enters, wraps at 1
+     */
+    void setPhase(int viewWidth, float phase) {
+        float period = viewWidth + mWidth;
+        float offset = (phase - (float) Math.floor(phase)) * period;
+        mX = DIRECTION_LEFT_TO_RIGHT == mDirection ? offset - mWidth : viewWidth - offset;
+    }
+
+    /**
+     * Move the light to the shared phase of ticker, so lights of the same speed sweep in sync.
+     *
+     * @param viewWidth    the width of view
+     * @param elapsedNanos the shared elapsed time.(ns)
+     */
+    void moveTo(int viewWidth, long elapsedNanos) {
+        if (0 >= viewWidth || 0 >= mSpeed) {
+            return;
+        }
+        long periodNanos = (long) ((viewWidth + mWidth) / mSpeed * 1000000000L);
+        setPhase(viewWidth, (float) (elapsedNanos % periodNanos) / periodNanos);
+    }
+
+    /**
+     * Move the light by the elapsed time, wrapping around when it leaves the view.
+     *
+     * @param viewWidth      the width of view
+     * @param elapsedSeconds the elapsed time since last frame.(s)
+     */
+    void moveBy(int viewWidth, float elapsedSeconds) {
+        if (0 >= viewWidth || 0 >= mSpeed) {
+            return;
+        }
+        float period = viewWidth + mWidth;
+        float distance = mSpeed * elapsedSeconds;
+        if (DIRECTION_LEFT_TO_RIGHT == mDirection) {
+            float x = mX + distance;
+            if (x >= viewWidth) {
+                x = (x + mWidth) % period - mWidth;
+            }
+            mX = x;
+        } else {
+            float x = mX - distance;
+            if (x + mWidth <= 0) {
+                x = viewWidth - (viewWidth - x) % period;
+            }
+            mX = x;
+        }
+    }
+}
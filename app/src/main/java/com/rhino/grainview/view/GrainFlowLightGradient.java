@@ -0,0 +1,112 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Shader;
+
+/**
+ * <p>The default flow light of {@link GrainView} and {@link GrainDrawable}, a horizontal
+ * gradient swept over the grain, with the defaults both share.</p>
+ * <p>The gradient is created again only when its width or colors changed, and is moved to the
+ * flow light by translating its local matrix, so a frame allocates nothing. It is drawn
+ * clipped by all bands, or through an alpha mask of them with {@link #getPaint()}.</p>
+ **/
+class GrainFlowLightGradient {
+
+    /**
+     * The default color of flow light.
+     */
+    static final int DEFAULT_FLOW_COLOR = 0xFF56DB3C;
+    /**
+     * The default color of grain.
+     */
+    static final int DEFAULT_GRAIN_COLOR = 0x66FFFFFF;
+    /**
+     * The default speed of flow light.(px/s)
+     */
+    static final float DEFAULT_FLOW_LIGHT_SPEED = 1500f;
+    /**
+     * The default ratio of flow light width for height, for each half of the light.
+     */
+    static final float DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT = 0.3f;
+    /**
+     * The default colors of flow light, from left to right, must not be modified.
+     */
+    static final int[] DEFAULT_FLOW_LIGHT_COLORS = new int[]{
+            0x01FFFFFF & DEFAULT_FLOW_COLOR, 0x88FFFFFF & DEFAULT_FLOW_COLOR, 0x01FFFFFF & DEFAULT_FLOW_COLOR};
+
+    /**
+     * The Paint whose shader is the gradient.
+     */
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    /**
+     * The gradient, from 0 to the width of flow light.
+     */
+    private LinearGradient mShader;
+    /**
+     * The width of flow light the gradient is created for.
+     */
+    private int mWidth;
+    /**
+     * The colors the gradient is created for.
+     */
+    private int[] mColors;
+    /**
+     * The reused local Matrix of gradient.
+     */
+    private final Matrix mMatrix = new Matrix();
+
+    GrainFlowLightGradient() {
+        mPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * Move the gradient to the flow light, created again when its width or colors changed.
+     *
+     * @param width  the width of flow light.(px)
+     * @param colors the colors, from left to right, compared by identity
+     * @param left   the left of flow light.(px)
+     * @return the Paint of flow light
+     */
+    Paint update(int width, int[] colors, float left) {
+        if (null == mShader || mWidth != width || mColors != colors) {
+            mWidth = width;
+            mColors = colors;
+            mShader = new LinearGradient(0, 0, width, 0, colors, null, Shader.TileMode.CLAMP);
+            mPaint.setShader(mShader);
+        }
+        mMatrix.setTranslate(left, 0);
+        mShader.setLocalMatrix(mMatrix);
+        return mPaint;
+    }
+
+    /**
+     * Draw the flow light clipped by all bands, {@link #update(int, int[], float)} first.
+     *
+     * @param canvas   Canvas
+     * @param clipPath the Path of all bands
+     * @param left     the left of flow light
+     * @param top      the top of flow light
+     * @param right    the right of flow light
+     * @param bottom   the bottom of flow light
+     */
+    void draw(Canvas canvas, Path clipPath, float left, float top, float right, float bottom) {
+        canvas.save();
+        canvas.clipPath(clipPath);
+        canvas.drawRect(left, top, right, bottom, mPaint);
+        canvas.restore();
+    }
+
+    /**
+     * Return the Paint of flow light, for its alpha and color filter.
+     *
+     * @return Paint
+     */
+    Paint getPaint() {
+        return mPaint;
+    }
+}
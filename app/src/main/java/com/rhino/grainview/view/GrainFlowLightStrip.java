@@ -0,0 +1,203 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import java.util.List;
+
+/**
+ * <p>The flow lights of {@link GrainView} composed into one row of pixels.</p>
+ * <p>Every frame the lights are added into premultiplied channels, one pixel per x of the
+ * view, and written into a 1 pixel high Bitmap. The Bitmap is the shader of one Paint, clamped
+ * vertically, so all lights are drawn together by one draw call in one clipped pass. The cost
+ * per frame grows only with the pixels lit, the draw call stays one however many lights there
+ * are. Nothing is allocated once the width is known.</p>
+ **/
+class GrainFlowLightStrip {
+
+    /**
+     * The width of strip, the width of view.
+     */
+    private int mWidth;
+    /**
+     * The premultiplied alpha, red, green and blue of every x.
+     */
+    private int[] mAlpha;
+    private int[] mRed;
+    private int[] mGreen;
+    private int[] mBlue;
+    /**
+     * The packed unpremultiplied pixels written into the Bitmap.
+     */
+    private int[] mPixels;
+    /**
+     * The Bitmap of 1 pixel high.
+     */
+    private Bitmap mBitmap;
+    /**
+     * The Paint whose shader is the Bitmap.
+     */
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    /**
+     * The lit range of strip, left inclusive and right exclusive, empty when left >= right.
+     */
+    private int mLeft;
+    private int mRight;
+
+    GrainFlowLightStrip() {
+        mPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * Compose the lights at their current positions into the strip.
+     *
+     * @param lights the lights
+     * @param width  the width of view
+     */
+    void compose(List<GrainFlowLight> lights, int width) {
+        ensureSize(width);
+        int previousLeft = mLeft;
+        int previousRight = mRight;
+        clear(previousLeft, previousRight);
+        int left = width;
+        int right = 0;
+        for (int i = 0, count = lights.size(); i < count; i++) {
+            GrainFlowLight light = lights.get(i);
+            int lightLeft = light.markDrawn();
+            int start = Math.max(0, lightLeft);
+            int end = Math.min(width, lightLeft + light.getWidth());
+            if (start >= end) {
+                continue;
+            }
+            addLight(light, lightLeft, start, end);
+            left = Math.min(left, start);
+            right = Math.max(right, end);
+        }
+        mLeft = left;
+        mRight = right;
+        // write the union of previous and current range, so the lights left behind are erased
+        int writeLeft = Math.min(previousLeft, left);
+        int writeRight = Math.max(previousRight, right);
+        if (writeLeft < writeRight) {
+            pack(writeLeft, writeRight);
+            mBitmap.setPixels(mPixels, writeLeft, width, writeLeft, 0, writeRight - writeLeft, 1);
+        }
+    }
+
+    /**
+     * Add the light, fading from its edges to its color at center.
+     */
+    private void addLight(GrainFlowLight light, int lightLeft, int start, int end) {
+        int color = light.getColor();
+        int alpha = color >>> 24;
+        int red = (color >> 16) & 0xFF;
+        int green = (color >> 8) & 0xFF;
+        int blue = color & 0xFF;
+        float halfWidth = light.getWidth() / 2f;
+        float center = lightLeft + halfWidth;
+        for (int x = start; x < end; x++) {
+            float fade = 1 - Math.abs(x + 0.5f - center) / halfWidth;
+            int a = (int) (alpha * fade + 0.5f);
+            if (0 >= a) {
+                continue;
+            }
+            mAlpha[x] += a;
+            mRed[x] += red * a / 255;
+            mGreen[x] += green * a / 255;
+            mBlue[x] += blue * a / 255;
+        }
+    }
+
+    /**
+     * Clamp the channels and unpremultiply them into pixels.
+     */
+    private void pack(int left, int right) {
+        for (int x = left; x < right; x++) {
+            int a = Math.min(255, mAlpha[x]);
+            if (0 == a) {
+                mPixels[x] = 0;
+                continue;
+            }
+            int r = Math.min(255, Math.min(255, mRed[x]) * 255 / a);
+            int g = Math.min(255, Math.min(255, mGreen[x]) * 255 / a);
+            int b = Math.min(255, Math.min(255, mBlue[x]) * 255 / a);
+            mPixels[x] = a << 24 | r << 16 | g << 8 | b;
+        }
+    }
+
+    private void clear(int left, int right) {
+        for (int x = left; x < right; x++) {
+            mAlpha[x] = 0;
+            mRed[x] = 0;
+            mGreen[x] = 0;
+            mBlue[x] = 0;
+        }
+    }
+
+    private void ensureSize(int width) {
+        if (null != mBitmap && mWidth == width) {
+            return;
+        }
+        release();
+        mWidth = width;
+        mAlpha = new int[width];
+        mRed = new int[width];
+        mGreen = new int[width];
+        mBlue = new int[width];
+        mPixels = new int[width];
+        mBitmap = Bitmap.createBitmap(width, 1, Bitmap.Config.ARGB_8888);
+        mPaint.setShader(new BitmapShader(mBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+    }
+
+    /**
+     * Return the Paint of strip, its shader maps x of view to the strip.
+     *
+     * @return Paint
+     */
+    Paint getPaint() {
+        return mPaint;
+    }
+
+    /**
+     * Return the left of lit range.
+     *
+     * @return the left, inclusive
+     */
+    int getLeft() {
+        return mLeft;
+    }
+
+    /**
+     * Return the right of lit range.
+     *
+     * @return the right, exclusive
+     */
+    int getRight() {
+        return mRight;
+    }
+
+    /**
+     * Return whether no pixel is lit.
+     *
+     * @return true empty, false lit
+     */
+    boolean isEmpty() {
+        return mLeft >= mRight;
+    }
+
+    /**
+     * Release the Bitmap, it is created again by the next compose.
+     */
+    void release() {
+        if (null != mBitmap) {
+            mBitmap.recycle();
+            mBitmap = null;
+        }
+        mPaint.setShader(null);
+        mLeft = 0;
+        mRight = 0;
+    }
+}
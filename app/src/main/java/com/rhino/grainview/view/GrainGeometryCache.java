@@ -0,0 +1,383 @@
+package com.rhino.grainview.view;
+
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainGeometrySnapshot;
+import com.rhino.grainview.view.geometry.GrainPathBuffer;
+import com.rhino.grainview.view.geometry.GrainSpec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * <p>The process wide LRU cache of measured grain geometry.</p>
+ * <p>Views of the same size share one immutable {@link GrainPathSet}, the least recently
+ * used set is evicted when the cache is full.</p>
+ **/
+public class GrainGeometryCache {
+
+    /**
+     * The default max count of cached sizes.
+     */
+    private static final int DEFAULT_MAX_SIZE = 16;
+
+    private static GrainGeometryCache sInstance;
+
+    /**
+     * The cached sets in access order.
+     */
+    private final LinkedHashMap<Key, GrainPathSet> mCache;
+    /**
+     * The reused key for lookup.
+     */
+    private final Key mLookupKey = new Key();
+    /**
+     * The default spec.
+     */
+    private final GrainSpec mDefaultSpec = new GrainSpec();
+    /**
+     * The max count of cached sizes.
+     */
+    private int mMaxSize;
+    /**
+     * The count of hit.
+     */
+    private int mHitCount;
+    /**
+     * The count of miss.
+     */
+    private int mMissCount;
+    /**
+     * The count of eviction.
+     */
+    private int mEvictionCount;
+
+    public GrainGeometryCache(int maxSize) {
+        if (0 >= maxSize) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.mMaxSize = maxSize;
+        this.mCache = new LinkedHashMap<Key, GrainPathSet>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, GrainPathSet> eldest) {
+                if (size() > mMaxSize) {
+                    mEvictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the process wide instance.
+     *
+     * @return GrainGeometryCache
+     */
+    public static synchronized GrainGeometryCache getInstance() {
+        if (null == sInstance) {
+            sInstance = new GrainGeometryCache(DEFAULT_MAX_SIZE);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Return the cached set of the size, build and cache it when missed.
+     *
+     * @param ctx    the context
+     * @param width  the width of view
+     * @param height the height of view
+     * @return GrainPathSet, must not be modified
+     */
+    public GrainPathSet get(Context ctx, int width, int height) {
+        return get(ctx, width, height, GrainGeometry.DEFAULT_LOD_TOLERANCE);
+    }
+
+    /**
+     * Return the cached set of the size and tolerance of level of detail, build and cache it
+     * when missed.
+     *
+     * @param ctx          the context
+     * @param width        the width of view
+     * @param height       the height of view
+     * @param lodTolerance the tolerance of level of detail.(px)
+     * @return GrainPathSet, must not be modified
+     */
+    public GrainPathSet get(Context ctx, int width, int height, float lodTolerance) {
+        return get(ctx, width, height, lodTolerance, 0, null);
+    }
+
+    /**
+     * Return the cached set of the size, tolerance of level of detail, tolerance of arc
+     * flattening and spec, build and cache it when missed.
+     *
+     * @param ctx                 the context
+     * @param width               the width of view
+     * @param height              the height of view
+     * @param lodTolerance        the tolerance of level of detail.(px)
+     * @param flatteningTolerance the tolerance of arc flattening, 0 to keep arcs.(px)
+     * @param spec                the GrainSpec, null for the default
+     * @return GrainPathSet, must not be modified
+     */
+    public GrainPathSet get(Context ctx, int width, int height, float lodTolerance, float flatteningTolerance,
+            @Nullable GrainSpec spec) {
+        GrainGeometryLoader.loadBakedGeometry(ctx);
+        return get(width, height, ctx.getResources().getDisplayMetrics().density, lodTolerance,
+                flatteningTolerance, spec);
+    }
+
+    /**
+     * Return the cached set of the size, build and cache it when missed.
+     * A missed size is taken from the baked geometry once it is mapped by
+     * {@link GrainGeometryLoader#loadBakedGeometry(Context)}.
+     * It is safe to call from any thread.
+     *
+     * @param width   the width of view
+     * @param height  the height of view
+     * @param density the density of display
+     * @return GrainPathSet, must not be modified
+     */
+    public GrainPathSet get(int width, int height, float density) {
+        return get(width, height, density, GrainGeometry.DEFAULT_LOD_TOLERANCE);
+    }
+
+    /**
+     * Return the cached set of the size and tolerance of level of detail, build and cache it
+     * when missed. It is safe to call from any thread.
+     *
+     * @param width        the width of view
+     * @param height       the height of view
+     * @param density      the density of display
+     * @param lodTolerance the tolerance of level of detail.(px)
+     * @return GrainPathSet, must not be modified
+     */
+    public GrainPathSet get(int width, int height, float density, float lodTolerance) {
+        return get(width, height, density, lodTolerance, 0, null);
+    }
+
+    /**
+     * Return the cached set of the size, tolerance of level of detail, tolerance of arc
+     * flattening and spec, build and cache it when missed. It is safe to call from any thread,
+     * a missed set is built outside the lock, so a lookup never waits for a build of another
+     * thread. When two threads miss the same size at once, the set published first wins.
+     *
+     * @param width               the width of view
+     * @param height              the height of view
+     * @param density             the density of display
+     * @param lodTolerance        the tolerance of level of detail.(px)
+     * @param flatteningTolerance the tolerance of arc flattening, 0 to keep arcs.(px)
+     * @param spec                the GrainSpec, null for the default
+     * @return GrainPathSet, must not be modified
+     */
+    public GrainPathSet get(int width, int height, float density, float lodTolerance,
+            float flatteningTolerance, @Nullable GrainSpec spec) {
+        if (null == spec) {
+            spec = mDefaultSpec;
+        }
+        synchronized (this) {
+            mLookupKey.set(width, height, density, lodTolerance, flatteningTolerance, spec);
+            GrainPathSet pathSet = mCache.get(mLookupKey);
+            if (null != pathSet) {
+                mHitCount++;
+                return pathSet;
+            }
+            mMissCount++;
+        }
+        GrainHelper helper = new GrainHelper();
+        helper.setLodTolerance(lodTolerance);
+        helper.setArcFlatteningTolerance(flatteningTolerance);
+        helper.setSpec(spec);
+        GrainPathSet pathSet = new GrainPathSet().build(GrainBakedGeometryAsset.peek(), helper,
+                width, height, density);
+        Key key = new Key();
+        key.set(width, height, density, lodTolerance, flatteningTolerance, new GrainSpec(spec));
+        return putIfAbsent(key, pathSet);
+    }
+
+    /**
+     * Publish the set built outside the lock, unless another thread published the same key first.
+     *
+     * @return the set in the cache
+     */
+    private synchronized GrainPathSet putIfAbsent(Key key, GrainPathSet pathSet) {
+        GrainPathSet cached = mCache.get(key);
+        if (null != cached) {
+            return cached;
+        }
+        mCache.put(key, pathSet);
+        return pathSet;
+    }
+
+    /**
+     * Build and cache the sets of many sizes at once, the sizes already cached are skipped.
+     * The outlines of all sizes are built as independent tasks on the executor, so it scales
+     * with the cores, only joining them into Paths runs on the calling thread. Call it off the
+     * UI thread, for example at startup for the sizes of a grid.
+     *
+     * @param executor     the ExecutorService building the outlines, not shut down
+     * @param widths       the widths of view
+     * @param heights      the heights of view, the same length as widths
+     * @param density      the density of display
+     * @param lodTolerance the tolerance of level of detail.(px)
+     * @throws InterruptedException when interrupted while building
+     */
+    public void precompute(ExecutorService executor, int[] widths, int[] heights, float density, float lodTolerance)
+            throws InterruptedException {
+        if (heights.length != widths.length) {
+            throw new IllegalArgumentException("Sizes have different lengths");
+        }
+        List<Key> keys = new ArrayList<>(widths.length);
+        synchronized (this) {
+            for (int i = 0; i < widths.length; i++) {
+                mLookupKey.set(widths[i], heights[i], density, lodTolerance, 0, mDefaultSpec);
+                if (mCache.containsKey(mLookupKey)) {
+                    continue;
+                }
+                Key key = new Key();
+                key.set(widths[i], heights[i], density, lodTolerance, 0, new GrainSpec());
+                if (!keys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        GrainGeometry geometry = new GrainGeometry();
+        geometry.setLodTolerance(lodTolerance);
+        GrainGeometrySnapshot[] snapshots = new GrainGeometrySnapshot[keys.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            Key key = keys.get(i);
+            geometry.measure(key.width, key.height, density);
+            snapshots[i] = geometry.snapshot();
+        }
+        GrainPathBuffer[][] bands = GrainGeometrySnapshot.buildBands(executor, snapshots);
+        for (int i = 0; i < snapshots.length; i++) {
+            Key key = keys.get(i);
+            putIfAbsent(key, new GrainPathSet().build(bands[i], key.width, key.height, 0));
+        }
+    }
+
+    /**
+     * Set the max count of cached sizes, the eldest sets are evicted when shrunk.
+     *
+     * @param maxSize the max count
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (0 >= maxSize) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.mMaxSize = maxSize;
+        while (mCache.size() > mMaxSize) {
+            mCache.remove(mCache.keySet().iterator().next());
+            mEvictionCount++;
+        }
+    }
+
+    /**
+     * Return the max count of cached sizes.
+     *
+     * @return the max count
+     */
+    public synchronized int getMaxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Return the count of cached sizes.
+     *
+     * @return the count
+     */
+    public synchronized int size() {
+        return mCache.size();
+    }
+
+    /**
+     * Return the count of hit.
+     *
+     * @return the count of hit
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Return the count of miss.
+     *
+     * @return the count of miss
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Return the count of eviction.
+     *
+     * @return the count of eviction
+     */
+    public synchronized int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Clear all cached sets, the counters are kept.
+     */
+    public synchronized void clear() {
+        mCache.clear();
+    }
+
+    /**
+     * The key of cached set.
+     */
+    private static class Key {
+        private int width;
+        private int height;
+        private float density;
+        private float lodTolerance;
+        private float flatteningTolerance;
+        private GrainSpec spec;
+
+        private void set(int width, int height, float density, float lodTolerance, float flatteningTolerance,
+                GrainSpec spec) {
+            this.width = width;
+            this.height = height;
+            this.density = density;
+            this.lodTolerance = lodTolerance;
+            this.flatteningTolerance = flatteningTolerance;
+            this.spec = spec;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return width == key.width && height == key.height
+                    && Float.compare(density, key.density) == 0
+                    && Float.compare(lodTolerance, key.lodTolerance) == 0
+                    && Float.compare(flatteningTolerance, key.flatteningTolerance) == 0
+                    && spec.equals(key.spec);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + Float.floatToIntBits(density);
+            result = 31 * result + Float.floatToIntBits(lodTolerance);
+            result = 31 * result + Float.floatToIntBits(flatteningTolerance);
+            result = 31 * result + spec.hashCode();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.rhino.grainview.view;
+
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainSpec;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>The loader which prepares grain geometry on a background executor and publishes
+ * the result on the UI thread.</p>
+ **/
+public class GrainGeometryLoader {
+
+    /**
+     * The callback of loaded geometry, called on the UI thread.
+     */
+    public interface Callback {
+        /**
+         * Called when the geometry is ready.
+         *
+         * @param pathSet        the GrainPathSet
+         * @param buildTimeNanos the time spent in background.(ns)
+         */
+        void onGeometryLoaded(GrainPathSet pathSet, long buildTimeNanos);
+    }
+
+    private static Executor sExecutor;
+    private static Handler sMainHandler;
+
+    private GrainGeometryLoader() {
+    }
+
+    /**
+     * Set the executor for building geometry, null to use the default background thread.
+     *
+     * @param executor the Executor
+     */
+    public static synchronized void setExecutor(Executor executor) {
+        sExecutor = executor;
+    }
+
+    /**
+     * Map the baked geometry asset in background once, so the UI thread never opens the
+     * assets. The sizes are computed live until it is mapped.
+     *
+     * @param ctx the context
+     */
+    public static void loadBakedGeometry(@NonNull Context ctx) {
+        if (GrainBakedGeometryAsset.isLoaded()) {
+            return;
+        }
+        final Context appContext = ctx.getApplicationContext();
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                GrainBakedGeometryAsset.get(appContext);
+            }
+        });
+    }
+
+    /**
+     * Load the geometry of the size in background.
+     *
+     * @param width    the width of view
+     * @param height   the height of view
+     * @param density  the density of display
+     * @param useCache true take it from the process wide cache, false build a new set
+     * @param callback the Callback, called on the UI thread
+     */
+    public static void load(int width, int height, float density,
+            boolean useCache, @NonNull Callback callback) {
+        load(width, height, density, GrainGeometry.DEFAULT_LOD_TOLERANCE, 0, null, useCache, callback);
+    }
+
+    /**
+     * Load the geometry of the size, tolerance of level of detail, tolerance of arc flattening
+     * and spec in background.
+     *
+     * @param width               the width of view
+     * @param height              the height of view
+     * @param density             the density of display
+     * @param lodTolerance        the tolerance of level of detail.(px)
+     * @param flatteningTolerance the tolerance of arc flattening, 0 to keep arcs.(px)
+     * @param spec                the GrainSpec, null for the default, must not be modified until loaded
+     * @param useCache            true take it from the process wide cache, false build a new set
+     * @param callback            the Callback, called on the UI thread
+     */
+    public static void load(final int width, final int height, final float density, final float lodTolerance,
+            final float flatteningTolerance, @Nullable final GrainSpec spec, final boolean useCache,
+            @NonNull final Callback callback) {
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                long startNanos = System.nanoTime();
+                final GrainPathSet pathSet;
+                if (useCache) {
+                    pathSet = GrainGeometryCache.getInstance().get(width, height, density, lodTolerance, flatteningTolerance, spec);
+                } else {
+                    GrainHelper helper = new GrainHelper();
+                    helper.setLodTolerance(lodTolerance);
+                    helper.setArcFlatteningTolerance(flatteningTolerance);
+                    if (null != spec) {
+                        helper.setSpec(spec);
+                    }
+                    pathSet = new GrainPathSet().build(GrainBakedGeometryAsset.peek(), helper,
+                            width, height, density);
+                }
+                final long buildTimeNanos = System.nanoTime() - startNanos;
+                getMainHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onGeometryLoaded(pathSet, buildTimeNanos);
+                    }
+                });
+            }
+        });
+    }
+
+    private static synchronized Executor getExecutor() {
+        if (null == sExecutor) {
+            sExecutor = newDefaultExecutor();
+        }
+        return sExecutor;
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (null == sMainHandler) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+
+    private static ExecutorService newDefaultExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull final Runnable r) {
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "GrainGeometryLoader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -4,8 +4,10 @@ package com.rhino.grainview.view;
 import android.content.Context;
 import android.graphics.Path;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainPathBuffer;
+import com.rhino.grainview.view.geometry.GrainPolyline;
+import com.rhino.grainview.view.geometry.GrainSpec;
 
 /**
  * @since Created by LuoLin on 2018/1/26.
@@ -13,165 +15,184 @@ import java.util.List;
 public class GrainHelper {
 
     /**
-     * The default width of grain.(dp)
-     **/
-    private static final float DEFAULT_GRAIN_WIDTH = 1f;
-    /**
-     * The default gap ratio for radius.(1/3.25)
-     **/
-    private static final float DEFAULT_GRAIN_GAP_RATIO_FOR_RADIUS = 0.3077f;
-    /**
-     * The default center gap ratio for radius.(1/5)
-     **/
-    private static final float DEFAULT_CENTER_GAP_RATIO_FOR_RADIUS = 0.2f;
-    /**
-     * The default margin line length ratio of ending for width.(2/360)
-     **/
-    private static final float DEFAULT_END_MARGIN_LINE_LENGTH_RATIO_FOR_WIDTH = 0.0056f;
-    /**
-     * The default radius ratio of peak big for width.(12/360)
-     **/
-    private static final float DEFAULT_PEAK_BIG_RADIUS_RATIO_FOR_WIDTH = 0.0333f;
-    /**
-     * The default height ratio of first peak for height.((55-12)/300)
-     **/
-    private static final float DEFAULT_PEAK1_HEIGHT_RATIO_FOR_HEIGHT = 0.1433f;
-    /**
-     * The default height ratio of second peak for height.((102-12)/300)
-     **/
-    private static final float DEFAULT_PEAK2_HEIGHT_RATIO_FOR_HEIGHT = 0.3f;
-    /**
-     * The default height ratio of third peak for height.((122-12)/300)
-     **/
-    private static final float DEFAULT_PEAK3_HEIGHT_RATIO_FOR_HEIGHT = 0.3667f;
-    /**
-     * The default height ratio of fourth peak for height.((45-12)/300)
-     **/
-    private static final float DEFAULT_PEAK4_HEIGHT_RATIO_FOR_HEIGHT = 0.11f;
-    /**
-     * The default height ratio of center bolt for height.((93-12)/300)
-     **/
-    private static final float DEFAULT_CENTER_BOLT_HEIGHT_SCALE_FOR_HEIGHT = 0.27f;
+     * The platform independent geometry.
+     */
+    private final GrainGeometry mGeometry = new GrainGeometry();
     /**
-     * The default angle A left center flag.
+     * The command buffer of outline.
      */
-    private static final float DEFAULT_ANGLE_A_LEFT_CENTER_FLAG = 48.5f;
+    private final GrainPathBuffer mBuffer = new GrainPathBuffer();
     /**
-     * The default angle A right center flag.
+     * The adapter for writing into caller owned Path.
      */
-    private static final float DEFAULT_ANGLE_B_RIGHT_CENTER_FLAG = 78f;
+    private final GrainPathAdapter mAdapter = new GrainPathAdapter();
     /**
-     * The default ratio for left line and right line of center flag.(48/65)
+     * The max distance of chords from arcs when flattened, 0 to keep arcs.(px)
      */
-    private static final float DEFAULT_RATIO_LEFT_LINE_AND_RIGHT_LINE_OF_CENTER_FLAG = 0.7385f;
+    private float mArcFlatteningTolerance;
+
 
     /**
-     * The width of view.
+     * Measure the param.
+     *
+     * @param width  the width of view
+     * @param height the height of view
      */
-    private int mViewWidth;
+    public void measure(Context ctx, int width, int height) {
+        measure(width, height, ctx.getResources().getDisplayMetrics().density);
+    }
+
     /**
-     * The height of view.
+     * Measure the param, it does not touch the context so it is safe off the UI thread.
+     *
+     * @param width   the width of view
+     * @param height  the height of view
+     * @param density the density of display
      */
-    private int mViewHeight;
-    /**
-     * The margin line length scale of ending.
-     **/
-    private float mEndMarginLineLength;
-    /**
-     * The width of per grain.
-     **/
-    private float mGrainWidth;
-    /**
-     * The gap of per grain.
-     **/
-    private float mGrainGap;
-    /**
-     * The radius scale of peak big.
-     **/
-    private float mPeakBigRadius;
-    /**
-     * The y offset of peak big.
-     **/
-    private float mPeakBigYOffset;
-    /**
-     * The height scale of first peak.
-     **/
-    private float mPeakHeight1;
-    /**
-     * The height scale of second peak.
-     **/
-    private float mPeakHeight2;
-    /**
-     * The height scale of third peak.
-     **/
-    private float mPeakHeight3;
-    /**
-     * The height scale of fourth peak.
-     **/
-    private float mPeakHeight4;
+    public void measure(int width, int height, float density) {
+        mGeometry.measure(width, height, density);
+    }
+
     /**
-     * The angle A left center flag.
+     * Return the platform independent geometry.
+     *
+     * @return GrainGeometry
      */
-    private double mA;
+    public GrainGeometry getGeometry() {
+        return mGeometry;
+    }
+
     /**
-     * The angle B right center flag.
+     * Set the tunable parameters, see {@link GrainGeometry#setSpec(GrainSpec)}.
+     *
+     * @param spec the GrainSpec, copied
+     * @return true changed, build the GrainPathSet again, false the same spec
      */
-    private double mB;
+    public boolean setSpec(GrainSpec spec) {
+        return mGeometry.setSpec(spec);
+    }
 
     /**
-     * The height of big bolt.
+     * Set the height ratios of all peaks without allocating, see
+     * {@link GrainGeometry#setPeakHeightRatios(float[])}.
+     *
+     * @param ratios the ratios of peaks from left, 0 ... 0.5
+     * @return true changed, build the GrainPathSet again, false the same heights
      */
-    private float mCenterBigBoltHeight;
+    public boolean setPeakHeightRatios(float[] ratios) {
+        return mGeometry.setPeakHeightRatios(ratios);
+    }
+
     /**
-     * The width of big bolt.
+     * Return the tunable parameters.
+     *
+     * @return GrainSpec, must not be modified
      */
-    private float mCenterBigBoltWidth;
+    public GrainSpec getSpec() {
+        return mGeometry.getSpec();
+    }
+
     /**
-     * The length of line left big bolt.
+     * Set the max error allowed by level of detail. Small sizes merge the bands and collapse
+     * the arcs when the error stays within it, see {@link GrainGeometry#getLod()}.
+     *
+     * @param tolerance the tolerance, 0 to always build the full detail.(px)
      */
-    private float mCenterBigBoltLeftLineLength;
+    public void setLodTolerance(float tolerance) {
+        mGeometry.setLodTolerance(tolerance);
+    }
+
     /**
-     * The length of line right big bolt.
+     * Return the max error allowed by level of detail.
+     *
+     * @return the tolerance.(px)
      */
-    private float mCenterBigBoltRightLineLength;
-
+    public float getLodTolerance() {
+        return mGeometry.getLodTolerance();
+    }
 
     /**
-     * Measure the param.
+     * Set the max distance of chords from arcs. When positive, the Paths built by
+     * {@link GrainPathSet} hold the arcs flattened once into lines, see {@link GrainPolyline}.
      *
-     * @param width  the width of view
-     * @param height the height of view
+     * @param tolerance the tolerance, 0 to keep arcs.(px)
      */
-    public void measure(Context ctx, int width, int height) {
-        if (0 >= width || 0 >= height) {
-            return;
-        }
-        mViewWidth = width;
-        mViewHeight = height;
-
-        mA = Math.toRadians(DEFAULT_ANGLE_A_LEFT_CENTER_FLAG);
-        mB = Math.toRadians(DEFAULT_ANGLE_B_RIGHT_CENTER_FLAG);
+    public void setArcFlatteningTolerance(float tolerance) {
+        mArcFlatteningTolerance = Math.max(0, tolerance);
+    }
 
-        mGrainWidth = dip2px(ctx, DEFAULT_GRAIN_WIDTH);
+    /**
+     * Return the max distance of chords from arcs.
+     *
+     * @return the tolerance, 0 to keep arcs.(px)
+     */
+    public float getArcFlatteningTolerance() {
+        return mArcFlatteningTolerance;
+    }
 
-        mEndMarginLineLength = DEFAULT_END_MARGIN_LINE_LENGTH_RATIO_FOR_WIDTH * mViewWidth;
-        mPeakBigRadius = DEFAULT_PEAK_BIG_RADIUS_RATIO_FOR_WIDTH * mViewWidth;
-        mGrainGap = DEFAULT_GRAIN_GAP_RATIO_FOR_RADIUS * mPeakBigRadius;
-        mPeakBigYOffset = 3 * mGrainGap + DEFAULT_CENTER_GAP_RATIO_FOR_RADIUS * mPeakBigRadius;
+    /**
+     * Build the band flattened into the caller owned polylines, the polylines are reset and
+     * reused with their own tolerance.
+     *
+     * @param band the band, one of {@link GrainGeometry#BAND_TOP_1} ... {@link GrainGeometry#BAND_BOTTOM_1}
+     * @param out  the reusable GrainPolyline
+     * @return the same GrainPolyline
+     */
+    public GrainPolyline buildBandPolyline(int band, GrainPolyline out) {
+        out.reset();
+        mGeometry.buildBand(band, out);
+        return out;
+    }
 
-        mPeakHeight1 = DEFAULT_PEAK1_HEIGHT_RATIO_FOR_HEIGHT * mViewHeight;
-        mPeakHeight2 = DEFAULT_PEAK2_HEIGHT_RATIO_FOR_HEIGHT * mViewHeight;
-        mPeakHeight3 = DEFAULT_PEAK3_HEIGHT_RATIO_FOR_HEIGHT * mViewHeight;
-        mPeakHeight4 = DEFAULT_PEAK4_HEIGHT_RATIO_FOR_HEIGHT * mViewHeight;
 
-        mCenterBigBoltHeight = DEFAULT_CENTER_BOLT_HEIGHT_SCALE_FOR_HEIGHT * mViewHeight;
-        mCenterBigBoltWidth = (float) (mCenterBigBoltHeight / Math.tan(mA) - mCenterBigBoltHeight / Math.tan(mB));
+    /**
+     * Build the band into the caller owned Path. The Path is rewound and reused,
+     * so no object is allocated.
+     *
+     * @param band the band, one of {@link GrainGeometry#BAND_TOP_1} ... {@link GrainGeometry#BAND_BOTTOM_1}
+     * @param out  the reusable Path
+     * @return the same Path
+     */
+    public Path buildBandPath(int band, Path out) {
+        out.rewind();
+        mAdapter.setPath(out);
+        mGeometry.buildBand(band, mAdapter);
+        return out;
+    }
 
-        float centerX = mViewWidth - 2 * mEndMarginLineLength - 8 * mPeakBigRadius - 8 * mPeakBigRadius;
-        mCenterBigBoltLeftLineLength = (centerX - mCenterBigBoltWidth) / (1 + DEFAULT_RATIO_LEFT_LINE_AND_RIGHT_LINE_OF_CENTER_FLAG) * DEFAULT_RATIO_LEFT_LINE_AND_RIGHT_LINE_OF_CENTER_FLAG;
-        mCenterBigBoltRightLineLength = centerX - mCenterBigBoltWidth - mCenterBigBoltLeftLineLength;
+    /**
+     * Build grain path from left into the caller owned Path.
+     *
+     * @param gap          the peak gap
+     * @param topRadius    the radius of top peak
+     * @param bottomRadius the radius of bottom peak
+     * @param inverted     true bottom, false top
+     * @param out          the reusable Path
+     * @return the same Path
+     */
+    public Path buildGrainPathFromLeft(float gap, float topRadius, float bottomRadius, boolean inverted, Path out) {
+        out.rewind();
+        mAdapter.setPath(out);
+        mGeometry.buildGrainPathFromLeft(gap, topRadius, bottomRadius, inverted, mAdapter);
+        return out;
     }
 
+    /**
+     * Build grain path from right into the caller owned Path.
+     *
+     * @param gap          the peak gap
+     * @param topRadius    the radius of top peak
+     * @param bottomRadius the radius of bottom peak
+     * @param inverted     true bottom, false top
+     * @param out          the reusable Path
+     * @return the same Path
+     */
+    public Path buildGrainPathFromRight(float gap, float topRadius, float bottomRadius, boolean inverted, Path out) {
+        out.rewind();
+        mAdapter.setPath(out);
+        mGeometry.buildGrainPathFromRight(gap, topRadius, bottomRadius, inverted, mAdapter);
+        return out;
+    }
 
     /**
      * Get grain path1 from left.
@@ -180,10 +201,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPath1FromLeft(boolean inverted) {
-        float gap = 0;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromLeft(gap, topRadius, bottomRadius, inverted);
+        mBuffer.reset();
+        mGeometry.buildGrainPath1FromLeft(inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -193,10 +213,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPath1FromRight(boolean inverted) {
-        float gap = mGrainWidth;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromRight(gap, topRadius, bottomRadius, inverted);
+        mBuffer.reset();
+        mGeometry.buildGrainPath1FromRight(inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -206,10 +225,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPath2FromLeft(boolean inverted) {
-        float gap = mGrainGap;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromLeft(gap, topRadius, bottomRadius, inverted);
+        mBuffer.reset();
+        mGeometry.buildGrainPath2FromLeft(inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -219,10 +237,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPath2FromRight(boolean inverted) {
-        float gap = mGrainGap + mGrainWidth;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromRight(gap, topRadius, bottomRadius, inverted);
+        mBuffer.reset();
+        mGeometry.buildGrainPath2FromRight(inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -232,10 +249,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPath3FromLeft(boolean inverted) {
-        float gap = 2 * mGrainGap;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromLeft(gap, topRadius, bottomRadius, inverted);
+        mBuffer.reset();
+        mGeometry.buildGrainPath3FromLeft(inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -245,10 +261,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPath3FromRight(boolean inverted) {
-        float gap = 2 * mGrainGap + mGrainWidth;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromRight(gap, topRadius, bottomRadius, inverted);
+        mBuffer.reset();
+        mGeometry.buildGrainPath3FromRight(inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -257,10 +272,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainTop4Path() {
-        float gap = 3 * mGrainGap;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromLeft(gap, topRadius, bottomRadius, false);
+        mBuffer.reset();
+        mGeometry.buildGrainTop4Path(mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -269,10 +283,9 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainBottom4Path() {
-        float gap = 3 * mGrainGap;
-        float topRadius = mPeakBigRadius - gap;
-        float bottomRadius = mPeakBigRadius + gap;
-        return getGrainPathFromRight(gap, topRadius, bottomRadius, true);
+        mBuffer.reset();
+        mGeometry.buildGrainBottom4Path(mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
 
@@ -286,258 +299,25 @@ public class GrainHelper {
      * @return Path
      */
     public Path getGrainPathFromLeft(float gap, float topRadius, float bottomRadius, boolean inverted) {
-
-        float yOffset = -mPeakBigYOffset + gap;
-        float centerBoltWidth = (float) (mCenterBigBoltWidth - gap / Math.sin(mA) + gap * Math.tan(Math.toRadians(90 - DEFAULT_ANGLE_A_LEFT_CENTER_FLAG)) - gap / Math.sin(mB) - gap / Math.tan(mB));
-        float centerBoltHeight = (float) (centerBoltWidth * mCenterBigBoltHeight / (mCenterBigBoltHeight / Math.tan(mA) - mCenterBigBoltHeight / Math.tan(mB)));
-        float centerBoltTipOffset = (float) (centerBoltHeight / Math.tan(mB));
-        float centerBoltLeftLineLength = (float) (mCenterBigBoltLeftLineLength + gap / Math.sin(mA) - gap * Math.tan(Math.toRadians(90 - DEFAULT_ANGLE_A_LEFT_CENTER_FLAG)));
-        float centerBoltRightLineLength = (float) (mCenterBigBoltRightLineLength + gap / Math.sin(mB) + gap / Math.tan(mB));
-
-        int invert = inverted ? -1 : 1;
-
-        List<GrainPathPoint> list = new ArrayList<>();
-        float tmp = 0;
-        list.add(GrainPathPoint.newPoint(tmp, 0));
-        list.add(GrainPathPoint.newPoint(tmp, invert * yOffset));
-
-        // end margin line
-        tmp = mEndMarginLineLength;
-        list.add(GrainPathPoint.newPoint(tmp, invert * yOffset));
-
-        // arc left first peak
-        list.add(GrainPathPoint.newArc(mEndMarginLineLength - bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                mEndMarginLineLength + bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -270f, invert * -90f));
-
-        // first peak
-        tmp = tmp + bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight1 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -(yOffset - mPeakHeight1 + 2 * topRadius) : (yOffset - mPeakHeight1),
-                tmp + 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight1) : (yOffset - mPeakHeight1 + 2 * topRadius),
-                invert * 180f, invert * 180f));
-        list.add(GrainPathPoint.newPoint(tmp + 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc between first peak and second peak
-        tmp = tmp + 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + 2 * bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -180f, invert * -180f));
-
-        // second peak
-        tmp = tmp + 2 * bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight2 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -(yOffset - mPeakHeight2 + 2 * topRadius) : (yOffset - mPeakHeight2),
-                tmp + 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight2) : (yOffset - mPeakHeight2 + 2 * topRadius),
-                invert * 180f, invert * 180f));
-        list.add(GrainPathPoint.newPoint(tmp + 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc right second peak
-        tmp = tmp + 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + 2 * bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -180f, invert * -90f));
-
-        // center flag
-        tmp = tmp + bottomRadius;
-        list.add(GrainPathPoint.newPoint(inverted ? tmp + centerBoltRightLineLength : tmp + centerBoltLeftLineLength, invert * yOffset));
-        list.add(GrainPathPoint.newPoint(inverted ? tmp + centerBoltRightLineLength - centerBoltTipOffset : tmp + centerBoltLeftLineLength + centerBoltWidth + centerBoltTipOffset, invert * (yOffset - centerBoltHeight)));
-        list.add(GrainPathPoint.newPoint(inverted ? tmp + centerBoltRightLineLength + centerBoltWidth : tmp + centerBoltLeftLineLength + centerBoltWidth, invert * yOffset));
-        list.add(GrainPathPoint.newPoint(tmp + centerBoltLeftLineLength + centerBoltWidth + centerBoltRightLineLength, invert * yOffset));
-
-        // arc left third peak
-        tmp = tmp + centerBoltLeftLineLength + centerBoltWidth + centerBoltRightLineLength;
-        list.add(GrainPathPoint.newArc(tmp - bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -270f, invert * -90f));
-
-        // third peak
-        tmp = tmp + bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight3 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -(yOffset - mPeakHeight3 + 2 * topRadius) : (yOffset - mPeakHeight3),
-                tmp + 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight3) : (yOffset - mPeakHeight3 + 2 * topRadius),
-                invert * 180f, invert * 180f));
-        list.add(GrainPathPoint.newPoint(tmp + 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc between third peak and fourth peak
-        tmp = tmp + 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + 2 * bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -180f, invert * -180f));
-
-        // fourth peak
-        tmp = tmp + 2 * bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight4 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -(yOffset - mPeakHeight4 + 2 * topRadius) : (yOffset - mPeakHeight4),
-                tmp + 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight4) : (yOffset - mPeakHeight4 + 2 * topRadius),
-                invert * -180f, invert * 180f));
-        list.add(GrainPathPoint.newPoint(tmp + 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc right fourth peak
-        tmp = tmp + 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + 2 * bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -180f, invert * -90f));
-
-        // end margin line
-        tmp = tmp + bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp + mEndMarginLineLength, invert * yOffset));
-        list.add(GrainPathPoint.newPoint(tmp + mEndMarginLineLength, 0));
-
-        return GrainPathPoint.getGrainPath(list);
+        mBuffer.reset();
+        mGeometry.buildGrainPathFromLeft(gap, topRadius, bottomRadius, inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
 
     /**
-     * Get grain path from left.
+     * Get grain path from right.
      *
-     * @param gap    the peak gap
+     * @param gap          the peak gap
      * @param topRadius    the radius of top peak
      * @param bottomRadius the radius of bottom peak
      * @param inverted     true bottom, false top
      * @return Path
      */
     public Path getGrainPathFromRight(float gap, float topRadius, float bottomRadius, boolean inverted) {
-
-        float yOffset = -mPeakBigYOffset + gap;
-        float centerBoltWidth = (float) (mCenterBigBoltWidth - gap / Math.sin(mA) + gap * Math.tan(Math.toRadians(90 - DEFAULT_ANGLE_A_LEFT_CENTER_FLAG)) - gap / Math.sin(mB) - gap / Math.tan(mB));
-        float centerBoltHeight = (float) (centerBoltWidth * mCenterBigBoltHeight / (mCenterBigBoltHeight / Math.tan(mA) - mCenterBigBoltHeight / Math.tan(mB)));
-        float centerBoltTipOffset = (float) (centerBoltHeight / Math.tan(mB));
-        float centerBoltLeftLineLength = (float) (mCenterBigBoltLeftLineLength + gap / Math.sin(mA) - gap * Math.tan(Math.toRadians(90 - DEFAULT_ANGLE_A_LEFT_CENTER_FLAG)));
-        float centerBoltRightLineLength = (float) (mCenterBigBoltRightLineLength + gap / Math.sin(mB) + gap / Math.tan(mB));
-
-        int invert = inverted ? -1 : 1;
-
-        List<GrainPathPoint> list = new ArrayList<>();
-
-        float tmp = mViewWidth;
-        list.add(GrainPathPoint.newPoint(tmp, 0));
-        list.add(GrainPathPoint.newPoint(tmp, invert * yOffset));
-
-        // end margin line
-        tmp = tmp - mEndMarginLineLength;
-        list.add(GrainPathPoint.newPoint(tmp, invert * yOffset));
-
-        // arc right fourth peak
-        list.add(GrainPathPoint.newArc(tmp - bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -270f, invert * 90f));
-
-        // fourth peak
-        tmp = tmp - bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight4 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp - 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight4 + 2 * topRadius) : (yOffset - mPeakHeight4),
-                tmp,
-                inverted ? -(yOffset - mPeakHeight4) : (yOffset - mPeakHeight4 + 2 * topRadius),
-                0f, invert * -180f));
-        list.add(GrainPathPoint.newPoint(tmp - 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc between third peak and fourth peak
-        tmp = tmp - 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp - 2 * bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                0f, invert * 180f));
-
-        // third peak
-        tmp = tmp - 2 * bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight3 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp - 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight3 + 2 * topRadius) : (yOffset - mPeakHeight3),
-                tmp,
-                inverted ? -(yOffset - mPeakHeight3) : (yOffset - mPeakHeight3 + 2 * topRadius),
-                0f, invert * -180f));
-        list.add(GrainPathPoint.newPoint(tmp - 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc left third peak
-        tmp = tmp - 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp - 2 * bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                0f, invert * 90f));
-
-        // center flag
-        tmp = tmp - bottomRadius;
-        list.add(GrainPathPoint.newPoint(inverted ? tmp - centerBoltLeftLineLength : tmp - centerBoltRightLineLength, invert * yOffset));
-        list.add(GrainPathPoint.newPoint(inverted ? tmp - centerBoltLeftLineLength - centerBoltWidth - centerBoltTipOffset : tmp - centerBoltRightLineLength + centerBoltTipOffset, invert * (yOffset - centerBoltHeight)));
-        list.add(GrainPathPoint.newPoint(inverted ? tmp - centerBoltLeftLineLength - centerBoltWidth : tmp - centerBoltRightLineLength - centerBoltWidth, invert * yOffset));
-        list.add(GrainPathPoint.newPoint(tmp - centerBoltRightLineLength - centerBoltWidth - centerBoltLeftLineLength, invert * yOffset));
-
-        // arc right second peak
-        tmp = tmp - centerBoltRightLineLength - centerBoltWidth - centerBoltLeftLineLength;
-        list.add(GrainPathPoint.newArc(tmp - bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp + bottomRadius,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                invert * -270f, invert * 90f));
-
-        // second peak
-        tmp = tmp - bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight2 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp - 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight2 + 2 * topRadius) : (yOffset - mPeakHeight2),
-                tmp,
-                inverted ? -(yOffset - mPeakHeight2) : (yOffset - mPeakHeight2 + 2 * topRadius),
-                0f, invert * -180f));
-        list.add(GrainPathPoint.newPoint(tmp - 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc between first peak and second peak
-        tmp = tmp - 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp - 2 * bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                0f, invert * 180f));
-
-        // first peak
-        tmp = tmp - 2 * bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp, invert * (yOffset - mPeakHeight1 + topRadius)));
-        list.add(GrainPathPoint.newArc(tmp - 2 * topRadius,
-                inverted ? -(yOffset - mPeakHeight1 + 2 * topRadius) : (yOffset - mPeakHeight1),
-                tmp,
-                inverted ? -(yOffset - mPeakHeight1) : (yOffset - mPeakHeight1 + 2 * topRadius),
-                0f, invert * -180f));
-        list.add(GrainPathPoint.newPoint(tmp - 2 * topRadius, invert * (yOffset - bottomRadius)));
-
-        // arc left first peak
-        tmp = tmp - 2 * topRadius;
-        list.add(GrainPathPoint.newArc(tmp - 2 * bottomRadius,
-                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
-                tmp,
-                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
-                0f, invert * 90f));
-
-        // end margin line
-        tmp = tmp - bottomRadius;
-        list.add(GrainPathPoint.newPoint(tmp - mEndMarginLineLength, invert * yOffset));
-        list.add(GrainPathPoint.newPoint(tmp - mEndMarginLineLength, 0));
-
-        return GrainPathPoint.getGrainPath(list);
+        mBuffer.reset();
+        mGeometry.buildGrainPathFromRight(gap, topRadius, bottomRadius, inverted, mBuffer);
+        return GrainPathAdapter.toPath(mBuffer);
     }
 
     /**
@@ -548,7 +328,6 @@ public class GrainHelper {
      * @return the px value
      */
     public int dip2px(Context ctx, float dpValue) {
-        final float scale = ctx.getResources().getDisplayMetrics().density;
-        return (int) (dpValue * scale + 0.5f);
+        return GrainGeometry.dip2px(ctx.getResources().getDisplayMetrics().density, dpValue);
     }
 }
@@ -0,0 +1,99 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+
+import com.rhino.grainview.view.geometry.GrainPathBuffer;
+import com.rhino.grainview.view.geometry.GrainPathSink;
+
+/**
+ * <p>The adapter which replays grain outline commands into an android {@link Path}.</p>
+ **/
+public class GrainPathAdapter implements GrainPathSink {
+
+    /**
+     * The Path to write.
+     */
+    private Path mPath;
+    /**
+     * The RectF of arc oval.
+     */
+    private final RectF mArcRectF;
+
+    public GrainPathAdapter() {
+        this(null, new RectF());
+    }
+
+    public GrainPathAdapter(Path path) {
+        this(path, new RectF());
+    }
+
+    /**
+     * @param path    the Path to write
+     * @param scratch the reusable RectF of arc oval
+     */
+    public GrainPathAdapter(Path path, @NonNull RectF scratch) {
+        this.mPath = path;
+        this.mArcRectF = scratch;
+    }
+
+    /**
+     * Create a new Path from the buffer.
+     *
+     * @param buffer the GrainPathBuffer
+     * @return Path
+     */
+    public static Path toPath(@NonNull GrainPathBuffer buffer) {
+        Path path = new Path();
+        buffer.replay(new GrainPathAdapter(path));
+        return path;
+    }
+
+    /**
+     * Rewind the Path and replay the buffer into it, no object is allocated.
+     *
+     * @param buffer the GrainPathBuffer
+     * @param out    the reusable Path
+     */
+    public void replayInto(@NonNull GrainPathBuffer buffer, @NonNull Path out) {
+        out.rewind();
+        mPath = out;
+        buffer.replay(this);
+    }
+
+    /**
+     * Set the Path to write.
+     *
+     * @param path the Path
+     */
+    public void setPath(Path path) {
+        this.mPath = path;
+    }
+
+    /**
+     * Return the Path to write.
+     *
+     * @return Path
+     */
+    public Path getPath() {
+        return mPath;
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        mPath.moveTo(x, y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        mPath.lineTo(x, y);
+    }
+
+    @Override
+    public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+        mArcRectF.set(left, top, right, bottom);
+        mPath.arcTo(mArcRectF, startAngle, sweepAngle);
+    }
+}
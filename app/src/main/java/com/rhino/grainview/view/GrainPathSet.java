@@ -0,0 +1,337 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.rhino.grainview.view.geometry.GrainBakedGeometry;
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainGeometrySnapshot;
+import com.rhino.grainview.view.geometry.GrainPathBuffer;
+import com.rhino.grainview.view.geometry.GrainPathSink;
+import com.rhino.grainview.view.geometry.GrainPolyline;
+
+/**
+ * <p>The android Paths of all grain bands and their union for clip.</p>
+ * <p>A set published by {@link GrainGeometryCache} is shared by many views and must be
+ * treated as immutable, only a privately owned set may be built again, the Paths are
+ * rewound and reused so building again allocates nothing.</p>
+ * <p>Hit testing is exact within {@link GrainPolyline#DEFAULT_TOLERANCE} when the arcs are
+ * kept: the outlines are recorded when built and flattened on the first hit test after.</p>
+ **/
+public class GrainPathSet {
+
+    /**
+     * The Paths of bands, indexed by {@link GrainGeometry#BAND_TOP_1} ... {@link GrainGeometry#BAND_BOTTOM_1}.
+     */
+    private final Path[] mBandPaths = new Path[GrainGeometry.BAND_COUNT];
+    /**
+     * The bounds of bands, used to skip bands outside the clip of canvas.
+     */
+    private final RectF[] mBandBounds = new RectF[GrainGeometry.BAND_COUNT];
+    /**
+     * The Path for clip, the union of all bands, also filled to draw all bands at once.
+     */
+    private final Path mClipPath = new Path();
+    /**
+     * The bounds of all bands.
+     */
+    private final RectF mBounds = new RectF();
+    /**
+     * The adapter writing into the Paths.
+     */
+    private final GrainPathAdapter mAdapter = new GrainPathAdapter();
+    /**
+     * The flattened polylines of bands, null when the arcs are kept.
+     */
+    private GrainPolyline[] mBandPolylines;
+    /**
+     * The recorded outlines of bands when the arcs are kept, null when flattened.
+     */
+    private GrainPathBuffer[] mBandBuffers;
+    /**
+     * The polylines of bands flattened for hit testing when the arcs are kept, created on
+     * the first hit test.
+     */
+    private GrainPolyline[] mHitPolylines;
+    /**
+     * Whether the polylines for hit testing are older than the outlines.
+     */
+    private boolean mIsHitPolylineDirty = true;
+    /**
+     * The width of view.
+     */
+    private int mWidth;
+    /**
+     * The height of view.
+     */
+    private int mHeight;
+    /**
+     * Whether the set is built from the baked geometry.
+     */
+    private boolean mIsBaked;
+
+    public GrainPathSet() {
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            mBandPaths[band] = new Path();
+            mBandBounds[band] = new RectF();
+        }
+        // the bands do not overlap, so the nonzero union fills the same pixels as every band
+        mClipPath.setFillType(Path.FillType.WINDING);
+    }
+
+    /**
+     * Build all Paths from the measured helper, the Paths are rewound and reused.
+     *
+     * @param helper the measured GrainHelper
+     * @return this
+     */
+    public GrainPathSet build(@NonNull GrainHelper helper) {
+        GrainGeometry geometry = helper.getGeometry();
+        return build(null, -1, geometry, null, helper.getArcFlatteningTolerance(),
+                geometry.getViewWidth(), geometry.getViewHeight());
+    }
+
+    /**
+     * Build all Paths of the size, from the baked geometry when it contains the size with the
+     * same tolerance of level of detail and the default spec, otherwise from the helper
+     * measured live.
+     *
+     * @param baked   the GrainBakedGeometry, null to always measure live
+     * @param helper  the GrainHelper for live measure
+     * @param width   the width of view
+     * @param height  the height of view
+     * @param density the density of display
+     * @return this
+     */
+    public GrainPathSet build(@Nullable GrainBakedGeometry baked, @NonNull GrainHelper helper,
+            int width, int height, float density) {
+        int entry = null == baked || !helper.getSpec().isDefault()
+                || Float.compare(baked.getLodTolerance(), helper.getLodTolerance()) != 0
+                ? -1 : baked.indexOf(width, height, density);
+        if (0 > entry) {
+            helper.measure(width, height, density);
+            return build(helper);
+        }
+        return build(baked, entry, null, null, helper.getArcFlatteningTolerance(), width, height);
+    }
+
+    /**
+     * Build all Paths from the buffers of bands built ahead, for example by
+     * {@link GrainGeometrySnapshot#buildBands(java.util.concurrent.ExecutorService, GrainGeometrySnapshot[])}.
+     *
+     * @param bands               the buffers of bands, indexed by band
+     * @param width               the width of view
+     * @param height              the height of view
+     * @param flatteningTolerance the tolerance of arc flattening, 0 to keep arcs.(px)
+     * @return this
+     */
+    public GrainPathSet build(@NonNull GrainPathBuffer[] bands, int width, int height, float flatteningTolerance) {
+        if (GrainGeometry.BAND_COUNT != bands.length) {
+            throw new IllegalArgumentException("needs " + GrainGeometry.BAND_COUNT + " bands");
+        }
+        return build(null, -1, null, bands, flatteningTolerance, width, height);
+    }
+
+    /**
+     * Build the Paths of bands from the baked entry, the buffers built ahead or the geometry,
+     * and the clip Path of all bands.
+     */
+    private GrainPathSet build(GrainBakedGeometry baked, int entry, GrainGeometry geometry, GrainPathBuffer[] bands,
+            float flatteningTolerance, int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mIsBaked = null != baked;
+        mClipPath.rewind();
+        mClipPath.setFillType(Path.FillType.WINDING);
+        if (0 < flatteningTolerance) {
+            if (null == mBandPolylines) {
+                mBandPolylines = new GrainPolyline[GrainGeometry.BAND_COUNT];
+                for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                    mBandPolylines[band] = new GrainPolyline(flatteningTolerance);
+                }
+            }
+            mBandBuffers = null;
+            mHitPolylines = null;
+        } else {
+            mBandPolylines = null;
+            if (null == mBandBuffers) {
+                mBandBuffers = new GrainPathBuffer[GrainGeometry.BAND_COUNT];
+                for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                    mBandBuffers[band] = new GrainPathBuffer();
+                }
+            }
+        }
+        mIsHitPolylineDirty = true;
+        GrainPathAdapter adapter = mAdapter;
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            GrainPathSink sink;
+            GrainPolyline polyline = null;
+            GrainPathBuffer buffer = null;
+            if (null != mBandPolylines) {
+                // tessellate the arcs once here, the Path only holds lines
+                polyline = mBandPolylines[band];
+                polyline.reset();
+                polyline.setTolerance(flatteningTolerance);
+                sink = polyline;
+            } else {
+                // keep the outline, flattened only when hit tested
+                buffer = mBandBuffers[band];
+                buffer.reset();
+                sink = buffer;
+            }
+            mBandPaths[band].rewind();
+            adapter.setPath(mBandPaths[band]);
+            if (null != baked) {
+                baked.buildBand(entry, band, sink);
+            } else if (null != bands) {
+                bands[band].replay(sink);
+            } else {
+                geometry.buildBand(band, sink);
+            }
+            if (null != polyline) {
+                polyline.replay(adapter);
+            } else {
+                buffer.replay(adapter);
+            }
+            mBandPaths[band].computeBounds(mBandBounds[band], true);
+            mClipPath.addPath(mBandPaths[band]);
+        }
+        mBounds.setEmpty();
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            mBounds.union(mBandBounds[band]);
+        }
+        return this;
+    }
+
+    /**
+     * Return whether the set is built from the baked geometry, the helper is not measured then.
+     *
+     * @return true baked, false measured live or built ahead
+     */
+    public boolean isBaked() {
+        return mIsBaked;
+    }
+
+    /**
+     * Return whether the arcs are flattened into polylines.
+     *
+     * @return true flattened, false arcs
+     */
+    public boolean isFlattened() {
+        return null != mBandPolylines;
+    }
+
+    /**
+     * Return the polylines of band.
+     *
+     * @param band the band
+     * @return GrainPolyline, null when not flattened, must not be modified
+     */
+    @Nullable
+    public GrainPolyline getBandPolyline(int band) {
+        return null == mBandPolylines ? null : mBandPolylines[band];
+    }
+
+    /**
+     * Return whether the point is inside any band by the nonzero winding rule, the same as
+     * filling the Paths. It is exact within the tolerance of flattening when flattened,
+     * otherwise within {@link GrainPolyline#DEFAULT_TOLERANCE}.
+     *
+     * @param x the x in the coordinate of Paths
+     * @param y the y in the coordinate of Paths
+     * @return true inside, false outside
+     */
+    public boolean contains(float x, float y) {
+        GrainPolyline[] polylines = null != mBandPolylines ? mBandPolylines : ensureHitPolylines();
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            if (mBandBounds[band].contains(x, y) && polylines[band].contains(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Flatten the recorded outlines for hit testing when they changed. A published set is
+     * shared, so the polylines are flattened under its lock.
+     *
+     * @return the polylines of bands
+     */
+    private synchronized GrainPolyline[] ensureHitPolylines() {
+        if (null == mHitPolylines) {
+            mHitPolylines = new GrainPolyline[GrainGeometry.BAND_COUNT];
+            for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                mHitPolylines[band] = new GrainPolyline(GrainPolyline.DEFAULT_TOLERANCE);
+            }
+            mIsHitPolylineDirty = true;
+        }
+        if (mIsHitPolylineDirty) {
+            for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                mHitPolylines[band].reset();
+                mBandBuffers[band].replay(mHitPolylines[band]);
+            }
+            mIsHitPolylineDirty = false;
+        }
+        return mHitPolylines;
+    }
+
+    /**
+     * Return the Path of band.
+     *
+     * @param band the band
+     * @return Path
+     */
+    public Path getBandPath(int band) {
+        return mBandPaths[band];
+    }
+
+    /**
+     * Return the bounds of band.
+     *
+     * @param band the band
+     * @return RectF, must not be modified
+     */
+    public RectF getBandBounds(int band) {
+        return mBandBounds[band];
+    }
+
+    /**
+     * Return the Path for clip. It is the merged Path of all bands, so filling it draws all
+     * bands with one draw call.
+     *
+     * @return Path
+     */
+    public Path getClipPath() {
+        return mClipPath;
+    }
+
+    /**
+     * Return the bounds of all bands.
+     *
+     * @return RectF, must not be modified
+     */
+    public RectF getBounds() {
+        return mBounds;
+    }
+
+    /**
+     * Return the width of view.
+     *
+     * @return the width of view
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Return the height of view.
+     *
+     * @return the height of view
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+}
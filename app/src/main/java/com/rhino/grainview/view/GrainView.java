@@ -1,14 +1,29 @@
 package com.rhino.grainview.view;
 
 import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.Path;
+import android.graphics.Picture;
 import android.graphics.Rect;
-import android.graphics.drawable.GradientDrawable;
+import android.graphics.RectF;
+import android.os.Build;
 import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
 import android.util.AttributeSet;
+import android.view.Display;
 import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.rhino.grainview.R;
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainSpec;
 
 
 /**
@@ -18,27 +33,10 @@ import android.view.View;
  **/
 public class GrainView extends View {
 
-    private static final int DEFAULT_FLOW_COLOR = 0xFF56DB3C;
     /**
      * The ratio of height for width.
      */
     private static final float HEIGHT_RATIO_FOR_WIDTH = 0.8333F;
-    /**
-     * The default delay time of anim.(ms)
-     */
-    private static final int DEFAULT_REFRESH_DELAY_TIME = 10;
-    /**
-     * The default x offset of anim.(px)
-     */
-    private static final int DEFAULT_OFFSET_X_PER_PERIOD = 15;
-    /**
-     * The default color of grain.
-     */
-    private static final int DEFAULT_GRAIN_COLOR = 0x66FFFFFF;
-    /**
-     * The default ratio of flow light width for height.
-     */
-    private static final float DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT = 0.3f;
 
     /**
      * The width of view.
@@ -58,54 +56,201 @@ public class GrainView extends View {
     private Paint mPaint;
 
     /**
-     * The Path first top.
+     * The Paths of all bands in drawing, shared when the geometry cache is enabled.
+     */
+    private GrainPathSet mPathSet;
+    /**
+     * The privately owned Paths, reused when the geometry cache is disabled.
+     */
+    private GrainPathSet mOwnPathSet;
+    /**
+     * Whether the process wide geometry cache enabled.
+     */
+    private boolean mIsGeometryCacheEnabled = true;
+    /**
+     * Whether the geometry is prepared off the UI thread.
+     */
+    private boolean mIsAsyncGeometryEnabled;
+    /**
+     * The generation of geometry request, a loaded result of an older generation is dropped.
+     */
+    private int mGeometryGeneration;
+    /**
+     * The max error allowed by level of detail of geometry.(px)
+     */
+    private float mLodTolerance = GrainGeometry.DEFAULT_LOD_TOLERANCE;
+    /**
+     * The max distance of chords from arcs when flattened, 0 to keep arcs.(px)
+     */
+    private float mArcFlatteningTolerance;
+    /**
+     * The tunable parameters of geometry.
+     */
+    private GrainSpec mSpec;
+    /**
+     * Whether the peaks are animated live, the own Paths are then always used and rebuilt in place.
+     */
+    private boolean mIsLivePeaksEnabled;
+    /**
+     * The reused height ratios of peaks for the live peaks.
+     */
+    private final float[] mLivePeakRatios = new float[GrainSpec.PEAK_COUNT];
+
+    /**
+     * The color of grain.
      */
-    private Path mGrainTop1Path;
+    private int mGrainColor = GrainFlowLightGradient.DEFAULT_GRAIN_COLOR;
     /**
-     * The Path second top.
+     * The colors of bands, null until any band is styled on its own.
      */
-    private Path mGrainTop2Path;
+    private int[] mBandColors;
     /**
-     * The Path third top.
+     * The mask of bands styled on their own, bit 1 &lt;&lt; band.
      */
-    private Path mGrainTop3Path;
+    private int mBandColorMask;
     /**
-     * The Path center gap.
+     * Whether the static grain layer is cached into a Bitmap.
      */
-    private Path mCenterGapPath;
+    private boolean mIsStaticLayerCacheEnabled;
     /**
-     * The Path third bottom.
+     * Whether the cached static grain layer needs to be drawn again.
      */
-    private Path mGrainBottom3Path;
+    private boolean mIsStaticLayerDirty = true;
     /**
-     * The Path second bottom.
+     * The Bitmap of cached static grain layer.
      */
-    private Path mGrainBottom2Path;
+    private Bitmap mStaticLayerBitmap;
     /**
-     * The Path first bottom.
+     * The Canvas for drawing into the static grain layer.
      */
-    private Path mGrainBottom1Path;
+    private Canvas mStaticLayerCanvas;
     /**
-     * The Path for clip.
+     * Whether the static grain layer is recorded into a Picture.
      */
-    private Path mClipPath;
+    private boolean mIsStaticLayerPictureEnabled;
+    /**
+     * The Picture of recorded static grain layer.
+     */
+    private Picture mStaticLayerPicture;
 
     /**
-     * The Drawable for flow anim.
+     * Whether the flow light is composited through a cached alpha mask instead of clipPath.
+     */
+    private boolean mIsFlowLightMaskEnabled;
+    /**
+     * Whether the alpha mask of flow light needs to be drawn again.
+     */
+    private boolean mIsFlowLightMaskDirty = true;
+    /**
+     * The ALPHA_8 Bitmap of all bands, used as the mask of flow light.
+     */
+    private Bitmap mFlowLightMaskBitmap;
+    /**
+     * The Canvas for drawing into the mask of flow light.
      */
-    private GradientDrawable mFlowLightShadowDrawable;
+    private Canvas mFlowLightMaskCanvas;
+    /**
+     * The Paint of the mask of flow light.
+     */
+    private Paint mFlowLightMaskPaint;
+    /**
+     * The source Rect of mask for the flow light.
+     */
+    private Rect mFlowLightMaskSrcRect;
+    /**
+     * The destination Rect of mask for the flow light.
+     */
+    private Rect mFlowLightMaskDstRect;
+
+    /**
+     * The colors of flow light, from left to right.
+     */
+    private int[] mFlowLightColors = GrainFlowLightGradient.DEFAULT_FLOW_LIGHT_COLORS;
+    /**
+     * The gradient of the default flow light.
+     */
+    private GrainFlowLightGradient mFlowLightGradient;
     /**
      * The Rect of flow anim Drawable.
      */
     private Rect mFlowLightShadowDestRect;
     /**
-     * The runnable for flow anim.
+     * The bounds of flow light, used to skip it outside the clip of canvas.
+     */
+    private RectF mFlowLightBounds;
+    /**
+     * The dirty Rect of the flow light in view coordinates.
+     */
+    private Rect mFlowLightDirtyRect;
+    /**
+     * The flow lights added, they replace the default flow light when not empty.
+     */
+    private List<GrainFlowLight> mFlowLights;
+    /**
+     * The strip all flow lights are composed into.
+     */
+    private GrainFlowLightStrip mFlowLightStrip;
+    /**
+     * Whether the flow lights moved since composed.
+     */
+    private boolean mIsFlowLightStripDirty = true;
+    /**
+     * The client of the process wide ticker for flow anim.
+     */
+    private FlowAnimClient mFlowAnimClient;
+    /**
+     * The rendering metrics, null when disabled.
      */
-    private FlowAnimRunnable mFlowAnimRunnable;
+    private GrainViewMetrics mMetrics;
     /**
-     * Whether anim started.
+     * Whether the flow light follows the shared phase of ticker, so it sweeps in sync
+     * with other views of the same size and speed.
+     */
+    private boolean mIsSharedPhase;
+    /**
+     * The x of flow light, kept as float so slow speed is not lost to rounding.(px)
+     */
+    private float mFlowLightX;
+    /**
+     * The speed of flow light.(px/s)
+     */
+    private float mFlowLightSpeed = GrainFlowLightGradient.DEFAULT_FLOW_LIGHT_SPEED;
+    /**
+     * The time of last anim frame, 0 before the first frame.(ns)
+     */
+    private long mLastFlowFrameTimeNanos;
+    /**
+     * Whether anim started, the logical state set by {@link #startAnim()} and {@link #stopAnim()}.
      */
     private boolean mIsAnimStarted;
+    /**
+     * Whether anim is actually ticking, it is paused while the view can not be seen.
+     */
+    private boolean mIsAnimRunning;
+    /**
+     * Whether attached to window.
+     */
+    private boolean mIsAttached;
+    /**
+     * Whether the window is visible.
+     */
+    private boolean mIsWindowVisible = true;
+    /**
+     * Whether this view and all its ancestors are visible.
+     */
+    private boolean mIsAggregatedVisible = true;
+    /**
+     * Whether any part of this view is on screen.
+     */
+    private boolean mIsOnScreen = true;
+    /**
+     * The reused Rect for checking whether on screen.
+     */
+    private Rect mVisibleRect;
+    /**
+     * The listener of scroll and layout, to pause anim when scrolled off screen.
+     */
+    private OnScreenListener mOnScreenListener;
     /**
      * Whether anim showed.
      */
@@ -122,6 +267,9 @@ public class GrainView extends View {
     public GrainView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         init();
+        if (null != attrs) {
+            readSpec(context.obtainStyledAttributes(attrs, R.styleable.GrainView, defStyleAttr, 0));
+        }
     }
 
     @Override
@@ -156,6 +304,10 @@ public class GrainView extends View {
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        if (null == mPathSet) {
+            return;
+        }
+        long startNanos = null == mMetrics ? 0 : System.nanoTime();
         canvas.save();
         canvas.translate(0, mViewHeight / 2);
         drawGrainPath(canvas);
@@ -163,12 +315,59 @@ public class GrainView extends View {
             drawFlowLightShadow(canvas);
         }
         canvas.restore();
+        if (null != mMetrics) {
+            mMetrics.recordDraw(System.nanoTime() - startNanos);
+        }
     }
 
     @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mIsAttached = true;
+        mIsOnScreen = true;
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.addOnScrollChangedListener(mOnScreenListener);
+        observer.addOnGlobalLayoutListener(mOnScreenListener);
+        updateMetricsFrameInterval();
+        updateAnimRunning();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        stopAnim();
+        mIsAttached = false;
+        ViewTreeObserver observer = getViewTreeObserver();
+        observer.removeOnScrollChangedListener(mOnScreenListener);
+        observer.removeGlobalOnLayoutListener(mOnScreenListener);
+        updateAnimRunning();
+        releaseStaticLayer();
+        releaseFlowLightMask();
+        mFlowLightStrip.release();
+        mIsFlowLightStripDirty = true;
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mIsWindowVisible = VISIBLE == visibility;
+        updateAnimRunning();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            mIsAggregatedVisible = isShown();
+            updateAnimRunning();
+        }
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mIsAggregatedVisible = isVisible;
+        updateAnimRunning();
     }
 
     /**
@@ -179,8 +378,41 @@ public class GrainView extends View {
         this.mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         this.mPaint.setStyle(Paint.Style.FILL);
         this.mFlowLightShadowDestRect = new Rect();
-        this.mFlowLightShadowDrawable = new GradientDrawable(GradientDrawable.Orientation.LEFT_RIGHT,
-                new int[]{0x01FFFFFF & DEFAULT_FLOW_COLOR, 0x88FFFFFF & DEFAULT_FLOW_COLOR, 0x01FFFFFF & DEFAULT_FLOW_COLOR});
+        this.mFlowLightGradient = new GrainFlowLightGradient();
+        this.mFlowLightBounds = new RectF();
+        this.mFlowLightDirtyRect = new Rect();
+        this.mVisibleRect = new Rect();
+        this.mOnScreenListener = new OnScreenListener();
+        this.mFlowAnimClient = new FlowAnimClient();
+        this.mFlowLights = new ArrayList<>();
+        this.mFlowLightStrip = new GrainFlowLightStrip();
+        this.mFlowLightMaskSrcRect = new Rect();
+        this.mFlowLightMaskDstRect = new Rect();
+        this.mSpec = new GrainSpec();
+    }
+
+    /**
+     * Read the spec from the attributes, the missing ones keep the defaults.
+     *
+     * @param a TypedArray, recycled
+     */
+    private void readSpec(TypedArray a) {
+        try {
+            int[] peaks = new int[]{R.styleable.GrainView_grainPeakHeight1, R.styleable.GrainView_grainPeakHeight2,
+                    R.styleable.GrainView_grainPeakHeight3, R.styleable.GrainView_grainPeakHeight4};
+            for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+                mSpec.setPeakHeightRatio(peak, a.getFloat(peaks[peak], mSpec.getPeakHeightRatio(peak)));
+            }
+            mSpec.setBoltHeightRatio(a.getFloat(R.styleable.GrainView_grainBoltHeight, mSpec.getBoltHeightRatio()));
+            mSpec.setBoltAngles(a.getFloat(R.styleable.GrainView_grainBoltAngleLeft, mSpec.getBoltAngleLeft()),
+                    a.getFloat(R.styleable.GrainView_grainBoltAngleRight, mSpec.getBoltAngleRight()));
+            mSpec.setBoltLineRatio(a.getFloat(R.styleable.GrainView_grainBoltLineRatio, mSpec.getBoltLineRatio()));
+            mSpec.setGapRatio(a.getFloat(R.styleable.GrainView_grainGapRatio, mSpec.getGapRatio()));
+            mSpec.setCenterGapRatio(a.getFloat(R.styleable.GrainView_grainCenterGapRatio, mSpec.getCenterGapRatio()));
+            mSpec.setBandsPerSide(a.getInt(R.styleable.GrainView_grainBandCount, mSpec.getBandsPerSide()));
+        } finally {
+            a.recycle();
+        }
     }
 
     /**
@@ -190,59 +422,60 @@ public class GrainView extends View {
         if (0 >= width || 0 >= height) {
             return;
         }
-        mGrainHelper.measure(getContext(), width, height);
-        Path mGrainTop1Path1 = mGrainHelper.getGrainPath1FromLeft(false);
-        Path mGrainTop1Path2 = mGrainHelper.getGrainPath1FromRight(false);
-        mGrainTop1Path = new Path();
-        mGrainTop1Path.addPath(mGrainTop1Path1);
-        mGrainTop1Path.addPath(mGrainTop1Path2);
-
-        Path mGrainTop2Path1 = mGrainHelper.getGrainPath2FromLeft(false);
-        Path mGrainTop2Path2 = mGrainHelper.getGrainPath2FromRight(false);
-        mGrainTop2Path = new Path();
-        mGrainTop2Path.addPath(mGrainTop2Path1);
-        mGrainTop2Path.addPath(mGrainTop2Path2);
-
-        Path mGrainTop3Path1 = mGrainHelper.getGrainPath3FromLeft(false);
-        Path mGrainTop3Path2 = mGrainHelper.getGrainPath3FromRight(false);
-        mGrainTop3Path = new Path();
-        mGrainTop3Path.addPath(mGrainTop3Path1);
-        mGrainTop3Path.addPath(mGrainTop3Path2);
-
-        mCenterGapPath = mGrainHelper.getGrainTop4Path();
-        mCenterGapPath.addPath(mGrainHelper.getGrainBottom4Path());
-
-        Path mGrainBottom3Path1 = mGrainHelper.getGrainPath3FromLeft(true);
-        Path mGrainBottom3Path2 = mGrainHelper.getGrainPath3FromRight(true);
-        mGrainBottom3Path = new Path();
-        mGrainBottom3Path.addPath(mGrainBottom3Path1);
-        mGrainBottom3Path.addPath(mGrainBottom3Path2);
-
-        Path mGrainBottom2Path1 = mGrainHelper.getGrainPath2FromLeft(true);
-        Path mGrainBottom2Path2 = mGrainHelper.getGrainPath2FromRight(true);
-        mGrainBottom2Path = new Path();
-        mGrainBottom2Path.addPath(mGrainBottom2Path1);
-        mGrainBottom2Path.addPath(mGrainBottom2Path2);
-
-        Path mGrainBottom1Path1 = mGrainHelper.getGrainPath1FromLeft(true);
-        Path mGrainBottom1Path2 = mGrainHelper.getGrainPath1FromRight(true);
-        mGrainBottom1Path = new Path();
-        mGrainBottom1Path.addPath(mGrainBottom1Path1);
-        mGrainBottom1Path.addPath(mGrainBottom1Path2);
-
-        mClipPath = new Path();
-        mClipPath.addPath(mGrainTop1Path);
-        mClipPath.addPath(mGrainTop2Path);
-        mClipPath.addPath(mGrainTop3Path);
-        mClipPath.addPath(mCenterGapPath);
-        mClipPath.addPath(mGrainBottom3Path);
-        mClipPath.addPath(mGrainBottom2Path);
-        mClipPath.addPath(mGrainBottom1Path);
+        final int generation = ++mGeometryGeneration;
+        // map the baked geometry in background once, the baked sizes skip the measure when mapped
+        GrainGeometryLoader.loadBakedGeometry(getContext());
+        if (mIsAsyncGeometryEnabled && !mIsLivePeaksEnabled) {
+            float density = getContext().getResources().getDisplayMetrics().density;
+            GrainGeometryLoader.load(width, height, density, mLodTolerance, mArcFlatteningTolerance,
+                    new GrainSpec(mSpec), mIsGeometryCacheEnabled,
+                    new GrainGeometryLoader.Callback() {
+                        @Override
+                        public void onGeometryLoaded(GrainPathSet pathSet, long buildTimeNanos) {
+                            if (generation == mGeometryGeneration) {
+                                if (null != mMetrics) {
+                                    mMetrics.recordBuild(buildTimeNanos);
+                                }
+                                mPathSet = pathSet;
+                                mIsStaticLayerDirty = true;
+                                mIsFlowLightMaskDirty = true;
+                                invalidate();
+                            }
+                        }
+                    });
+        } else {
+            long startNanos = System.nanoTime();
+            if (mIsGeometryCacheEnabled && !mIsLivePeaksEnabled) {
+                mPathSet = GrainGeometryCache.getInstance().get(getContext(), width, height, mLodTolerance,
+                        mArcFlatteningTolerance, mSpec);
+            } else {
+                if (null == mOwnPathSet) {
+                    mOwnPathSet = new GrainPathSet();
+                }
+                mGrainHelper.setLodTolerance(mLodTolerance);
+                mGrainHelper.setArcFlatteningTolerance(mArcFlatteningTolerance);
+                mGrainHelper.setSpec(mSpec);
+                mPathSet = mOwnPathSet.build(GrainBakedGeometryAsset.peek(), mGrainHelper, width, height,
+                        getContext().getResources().getDisplayMetrics().density);
+            }
+            if (null != mMetrics) {
+                mMetrics.recordBuild(System.nanoTime() - startNanos);
+            }
+        }
+        mIsStaticLayerDirty = true;
+        mIsFlowLightMaskDirty = true;
 
         mFlowLightShadowDestRect.top = -mViewHeight / 2;
         mFlowLightShadowDestRect.bottom = mViewHeight / 2;
-        mFlowLightShadowDestRect.left = (int) (mViewWidth / 2 - DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT * mFlowLightShadowDestRect.height());
-        mFlowLightShadowDestRect.right = (int) (mViewWidth / 2 + DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT * mFlowLightShadowDestRect.height());
+        float halfLightWidth = GrainFlowLightGradient.DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT
+                * mFlowLightShadowDestRect.height();
+        mFlowLightShadowDestRect.left = (int) (mViewWidth / 2 - halfLightWidth);
+        mFlowLightShadowDestRect.right = (int) (mViewWidth / 2 + halfLightWidth);
+        mFlowLightX = mFlowLightShadowDestRect.left;
+        for (int i = 0, count = mFlowLights.size(); i < count; i++) {
+            mFlowLights.get(i).setPhase(width, 0);
+        }
+        mIsFlowLightStripDirty = true;
     }
 
     /**
@@ -251,19 +484,98 @@ public class GrainView extends View {
      * @param canvas Canvas
      */
     private void drawGrainPath(Canvas canvas) {
-        canvas.save();
+        if (mIsStaticLayerCacheEnabled) {
+            ensureStaticLayer();
+            canvas.drawBitmap(mStaticLayerBitmap, 0, -mViewHeight / 2, null);
+            return;
+        }
+        // a hardware canvas only replays a Picture since M, draw the bands directly before
+        if (mIsStaticLayerPictureEnabled
+                && (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M || !canvas.isHardwareAccelerated())) {
+            ensureStaticLayerPicture();
+            canvas.save();
+            canvas.translate(0, -mViewHeight / 2);
+            canvas.drawPicture(mStaticLayerPicture);
+            canvas.restore();
+            return;
+        }
+        drawGrainBands(canvas);
+    }
 
-        this.mPaint.setColor(DEFAULT_GRAIN_COLOR);
+    /**
+     * Draw all grain bands, the merged Path at once unless any band is styled on its own.
+     *
+     * @param canvas Canvas
+     */
+    private void drawGrainBands(Canvas canvas) {
+        if (0 == mBandColorMask) {
+            this.mPaint.setColor(mGrainColor);
+            if (!canvas.quickReject(mPathSet.getBounds(), Canvas.EdgeType.AA)) {
+                canvas.drawPath(mPathSet.getClipPath(), mPaint);
+            }
+            return;
+        }
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            if (canvas.quickReject(mPathSet.getBandBounds(band), Canvas.EdgeType.AA)) {
+                continue;
+            }
+            this.mPaint.setColor(0 != (mBandColorMask & (1 << band)) ? mBandColors[band] : mGrainColor);
+            canvas.drawPath(mPathSet.getBandPath(band), mPaint);
+        }
+    }
 
-        canvas.drawPath(mGrainTop1Path, mPaint);
-        canvas.drawPath(mGrainTop2Path, mPaint);
-        canvas.drawPath(mGrainTop3Path, mPaint);
-        canvas.drawPath(mCenterGapPath, mPaint);
-        canvas.drawPath(mGrainBottom3Path, mPaint);
-        canvas.drawPath(mGrainBottom2Path, mPaint);
-        canvas.drawPath(mGrainBottom1Path, mPaint);
+    /**
+     * Draw the grain bands into the cached Bitmap when the geometry or color changed.
+     */
+    private void ensureStaticLayer() {
+        if (null == mStaticLayerBitmap
+                || mStaticLayerBitmap.getWidth() != mViewWidth
+                || mStaticLayerBitmap.getHeight() != mViewHeight) {
+            releaseStaticLayer();
+            mStaticLayerBitmap = Bitmap.createBitmap(mViewWidth, mViewHeight, Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas = new Canvas(mStaticLayerBitmap);
+            mIsStaticLayerDirty = true;
+        }
+        if (mIsStaticLayerDirty) {
+            mStaticLayerBitmap.eraseColor(0);
+            mStaticLayerCanvas.save();
+            mStaticLayerCanvas.translate(0, mViewHeight / 2);
+            drawGrainBands(mStaticLayerCanvas);
+            mStaticLayerCanvas.restore();
+            mIsStaticLayerDirty = false;
+        }
+    }
 
-        canvas.restore();
+    /**
+     * Record the grain bands into the Picture when the geometry or color changed.
+     */
+    private void ensureStaticLayerPicture() {
+        if (null == mStaticLayerPicture) {
+            mStaticLayerPicture = new Picture();
+            mIsStaticLayerDirty = true;
+        }
+        if (mIsStaticLayerDirty
+                || mStaticLayerPicture.getWidth() != mViewWidth
+                || mStaticLayerPicture.getHeight() != mViewHeight) {
+            Canvas recordingCanvas = mStaticLayerPicture.beginRecording(mViewWidth, mViewHeight);
+            recordingCanvas.translate(0, mViewHeight / 2);
+            drawGrainBands(recordingCanvas);
+            mStaticLayerPicture.endRecording();
+            mIsStaticLayerDirty = false;
+        }
+    }
+
+    /**
+     * Release the cached static grain layer.
+     */
+    private void releaseStaticLayer() {
+        if (null != mStaticLayerBitmap) {
+            mStaticLayerBitmap.recycle();
+            mStaticLayerBitmap = null;
+        }
+        mStaticLayerCanvas = null;
+        mStaticLayerPicture = null;
+        mIsStaticLayerDirty = true;
     }
 
     /**
@@ -272,26 +584,218 @@ public class GrainView extends View {
      * @param canvas Canvas
      */
     private void drawFlowLightShadow(Canvas canvas) {
-        canvas.save();
-        canvas.clipPath(mClipPath);
-        if (null != mFlowLightShadowDrawable) {
-            mFlowLightShadowDrawable.setBounds(mFlowLightShadowDestRect);
-            mFlowLightShadowDrawable.draw(canvas);
+        if (!mFlowLights.isEmpty()) {
+            drawFlowLights(canvas);
+            return;
+        }
+        mFlowLightBounds.set(mFlowLightShadowDestRect);
+        if (canvas.quickReject(mFlowLightBounds, Canvas.EdgeType.AA)) {
+            return;
+        }
+        if (mIsFlowLightMaskEnabled) {
+            drawFlowLightThroughMask(canvas);
+            return;
+        }
+        Rect light = mFlowLightShadowDestRect;
+        mFlowLightGradient.update(light.width(), mFlowLightColors, light.left);
+        mFlowLightGradient.draw(canvas, mPathSet.getClipPath(), light.left, light.top, light.right, light.bottom);
+    }
+
+    /**
+     * Draw all flow lights in one clipped pass, through the strip they are composed into.
+     *
+     * @param canvas Canvas
+     */
+    private void drawFlowLights(Canvas canvas) {
+        if (mIsFlowLightStripDirty) {
+            mFlowLightStrip.compose(mFlowLights, mViewWidth);
+            mIsFlowLightStripDirty = false;
+        }
+        if (mFlowLightStrip.isEmpty()) {
+            return;
+        }
+        int left = mFlowLightStrip.getLeft();
+        int right = mFlowLightStrip.getRight();
+        int top = -mViewHeight / 2;
+        int bottom = top + mViewHeight;
+        mFlowLightBounds.set(left, top, right, bottom);
+        if (canvas.quickReject(mFlowLightBounds, Canvas.EdgeType.AA)) {
+            return;
+        }
+        Paint paint = mFlowLightStrip.getPaint();
+        if (mIsFlowLightMaskEnabled) {
+            ensureFlowLightMask();
+            mFlowLightMaskSrcRect.set(left, 0, right, mViewHeight);
+            mFlowLightMaskDstRect.set(left, top, right, bottom);
+            canvas.drawBitmap(mFlowLightMaskBitmap, mFlowLightMaskSrcRect, mFlowLightMaskDstRect, paint);
+            return;
         }
+        canvas.save();
+        canvas.clipPath(mPathSet.getClipPath());
+        canvas.drawRect(mFlowLightBounds, paint);
         canvas.restore();
     }
 
     /**
-     * The runnable for flow anim.
+     * Draw the flow light through the cached alpha mask, only the part of mask under the
+     * flow light is drawn, colored by the gradient shader.
+     *
+     * @param canvas Canvas
      */
-    private class FlowAnimRunnable implements Runnable {
-        public void run() {
-            mFlowLightShadowDestRect.offset(DEFAULT_OFFSET_X_PER_PERIOD, 0);
-            if (mFlowLightShadowDestRect.left >= mViewWidth) {
-                mFlowLightShadowDestRect.offset(-mViewWidth - mFlowLightShadowDestRect.width(), 0);
+    private void drawFlowLightThroughMask(Canvas canvas) {
+        ensureFlowLightMask();
+        Rect light = mFlowLightShadowDestRect;
+        int left = Math.max(0, light.left);
+        int right = Math.min(mViewWidth, light.right);
+        if (left >= right) {
+            return;
+        }
+        Paint paint = mFlowLightGradient.update(light.width(), mFlowLightColors, light.left);
+        mFlowLightMaskSrcRect.set(left, 0, right, mViewHeight);
+        mFlowLightMaskDstRect.set(left, -mViewHeight / 2, right, -mViewHeight / 2 + mViewHeight);
+        canvas.drawBitmap(mFlowLightMaskBitmap, mFlowLightMaskSrcRect, mFlowLightMaskDstRect, paint);
+    }
+
+    /**
+     * Draw the alpha mask of all bands when the geometry changed.
+     */
+    private void ensureFlowLightMask() {
+        if (null == mFlowLightMaskBitmap
+                || mFlowLightMaskBitmap.getWidth() != mViewWidth
+                || mFlowLightMaskBitmap.getHeight() != mViewHeight) {
+            releaseFlowLightMask();
+            mFlowLightMaskBitmap = Bitmap.createBitmap(mViewWidth, mViewHeight, Bitmap.Config.ALPHA_8);
+            mFlowLightMaskCanvas = new Canvas(mFlowLightMaskBitmap);
+        }
+        if (mIsFlowLightMaskDirty) {
+            if (null == mFlowLightMaskPaint) {
+                mFlowLightMaskPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mFlowLightMaskPaint.setColor(0xFF000000);
             }
-            invalidate();
-            postDelayed(this, DEFAULT_REFRESH_DELAY_TIME);
+            mFlowLightMaskBitmap.eraseColor(0);
+            mFlowLightMaskCanvas.save();
+            mFlowLightMaskCanvas.translate(0, mViewHeight / 2);
+            mFlowLightMaskCanvas.drawPath(mPathSet.getClipPath(), mFlowLightMaskPaint);
+            mFlowLightMaskCanvas.restore();
+            mIsFlowLightMaskDirty = false;
+        }
+    }
+
+    /**
+     * Release the alpha mask of flow light.
+     */
+    private void releaseFlowLightMask() {
+        if (null != mFlowLightMaskBitmap) {
+            mFlowLightMaskBitmap.recycle();
+            mFlowLightMaskBitmap = null;
+        }
+        mFlowLightMaskCanvas = null;
+        mIsFlowLightMaskDirty = true;
+    }
+
+    /**
+     * Move the flow light by the time of frame and invalidate it.
+     *
+     * @param frameTimeNanos the time of this frame.(ns)
+     */
+    private void doFlowAnimFrame(long frameTimeNanos) {
+        if (!mFlowLights.isEmpty()) {
+            doFlowLightsFrame(frameTimeNanos);
+            return;
+        }
+        Rect light = mFlowLightShadowDestRect;
+        int lightWidth = light.width();
+        float period = mViewWidth + lightWidth;
+        if (null != mMetrics) {
+            mMetrics.recordTick(0 == mLastFlowFrameTimeNanos ? 0 : frameTimeNanos - mLastFlowFrameTimeNanos);
+        }
+        boolean moved = 0 < mViewWidth && 0 < mFlowLightSpeed;
+        if (moved && mIsSharedPhase) {
+            long periodNanos = (long) (period / mFlowLightSpeed * 1000000000L);
+            long elapsedNanos = GrainAnimTicker.getInstance().getSharedElapsedNanos(frameTimeNanos);
+            mFlowLightX = (elapsedNanos % periodNanos) / 1000000000f * mFlowLightSpeed - lightWidth;
+        } else if (moved && 0 != mLastFlowFrameTimeNanos) {
+            float elapsedSeconds = (frameTimeNanos - mLastFlowFrameTimeNanos) / 1000000000f;
+            float x = mFlowLightX + mFlowLightSpeed * elapsedSeconds;
+            if (x >= mViewWidth) {
+                x = (x + lightWidth) % period - lightWidth;
+            }
+            mFlowLightX = x;
+        } else {
+            moved = false;
+        }
+        mLastFlowFrameTimeNanos = frameTimeNanos;
+        if (!moved) {
+            invalidateFlowLight(light.left, light.right);
+            return;
+        }
+        int previousLeft = light.left;
+        light.offsetTo((int) mFlowLightX, light.top);
+        if (previousLeft <= light.left) {
+            // the union of previous and next flow light
+            invalidateFlowLight(previousLeft, light.right);
+        } else {
+            // wrapped around, the previous and next flow light are apart
+            invalidateFlowLight(previousLeft, previousLeft + lightWidth);
+            invalidateFlowLight(light.left, light.right);
+        }
+    }
+
+    /**
+     * Move all flow lights by the time of frame and invalidate the range they swept.
+     *
+     * @param frameTimeNanos the time of this frame.(ns)
+     */
+    private void doFlowLightsFrame(long frameTimeNanos) {
+        if (null != mMetrics) {
+            mMetrics.recordTick(0 == mLastFlowFrameTimeNanos ? 0 : frameTimeNanos - mLastFlowFrameTimeNanos);
+        }
+        long elapsedNanos = mIsSharedPhase ? GrainAnimTicker.getInstance().getSharedElapsedNanos(frameTimeNanos) : 0;
+        float elapsedSeconds = 0 == mLastFlowFrameTimeNanos ? 0 : (frameTimeNanos - mLastFlowFrameTimeNanos) / 1000000000f;
+        mLastFlowFrameTimeNanos = frameTimeNanos;
+        int left = mViewWidth;
+        int right = 0;
+        for (int i = 0, count = mFlowLights.size(); i < count; i++) {
+            GrainFlowLight light = mFlowLights.get(i);
+            if (mIsSharedPhase) {
+                light.moveTo(mViewWidth, elapsedNanos);
+            } else {
+                light.moveBy(mViewWidth, elapsedSeconds);
+            }
+            // a wrapped light spans from its previous to its next place, a wider but single rect
+            int x = light.getLeft();
+            int drawnLeft = light.getDrawnLeft();
+            left = Math.min(left, Math.min(x, drawnLeft));
+            right = Math.max(right, Math.max(x, drawnLeft) + light.getWidth());
+        }
+        mIsFlowLightStripDirty = true;
+        left = Math.max(0, left);
+        right = Math.min(mViewWidth, right);
+        if (left < right) {
+            invalidateFlowLight(left, right);
+        }
+    }
+
+    /**
+     * Invalidate only the horizontal range of flow light.
+     *
+     * @param left  the left in view coordinates
+     * @param right the right in view coordinates
+     */
+    private void invalidateFlowLight(int left, int right) {
+        int halfHeight = mViewHeight / 2;
+        mFlowLightDirtyRect.set(left, mFlowLightShadowDestRect.top + halfHeight,
+                right, mFlowLightShadowDestRect.bottom + halfHeight);
+        invalidate(mFlowLightDirtyRect);
+    }
+
+    /**
+     * The client of the process wide ticker for flow anim.
+     */
+    private class FlowAnimClient implements GrainAnimTicker.Client {
+        @Override
+        public void onTick(long frameTimeNanos) {
+            doFlowAnimFrame(frameTimeNanos);
         }
     }
 
@@ -302,25 +806,67 @@ public class GrainView extends View {
         if (mIsAnimStarted) {
             return;
         }
-        if (null == mFlowAnimRunnable) {
-            mFlowAnimRunnable = new FlowAnimRunnable();
-        } else {
-            removeCallbacks(mFlowAnimRunnable);
-        }
-        post(mFlowAnimRunnable);
         mIsAnimStarted = true;
+        updateAnimRunning();
     }
 
     /**
      * Stop float anim.
      */
     public void stopAnim() {
-        if (null != mFlowAnimRunnable) {
-            mIsAnimStarted = false;
-            removeCallbacks(mFlowAnimRunnable);
+        mIsAnimStarted = false;
+        updateAnimRunning();
+    }
+
+    /**
+     * Tick anim only while it is started and the view can be seen, pause it otherwise.
+     */
+    private void updateAnimRunning() {
+        boolean running = mIsAnimStarted && mIsAnimShow && mIsAttached
+                && mIsWindowVisible && mIsAggregatedVisible && mIsOnScreen;
+        if (mIsAnimRunning == running) {
+            return;
+        }
+        mIsAnimRunning = running;
+        if (running) {
+            mLastFlowFrameTimeNanos = 0;
+            GrainAnimTicker.getInstance().register(mFlowAnimClient);
+        } else {
+            GrainAnimTicker.getInstance().unregister(mFlowAnimClient);
         }
     }
 
+    /**
+     * The listener of scroll and layout, checks whether any part of this view is on screen.
+     */
+    private class OnScreenListener implements ViewTreeObserver.OnScrollChangedListener,
+            ViewTreeObserver.OnGlobalLayoutListener {
+        @Override
+        public void onScrollChanged() {
+            updateOnScreen();
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            updateOnScreen();
+        }
+
+        private void updateOnScreen() {
+            mIsOnScreen = getGlobalVisibleRect(mVisibleRect);
+            updateAnimRunning();
+        }
+    }
+
+    /**
+     * Return whether anim is actually ticking. It is paused while the view is detached,
+     * hidden, in an invisible window or scrolled off screen, even if started.
+     *
+     * @return true ticking, false paused or stopped
+     */
+    public boolean isAnimRunning() {
+        return mIsAnimRunning;
+    }
+
     /**
      * Return whether anim started.
      *
@@ -336,20 +882,562 @@ public class GrainView extends View {
      * @param color color
      */
     public void setGrainCenterColor(@ColorInt int color) {
-        this.mPaint.setColor(color);
+        if (mGrainColor == color) {
+            return;
+        }
+        this.mGrainColor = color;
+        this.mIsStaticLayerDirty = true;
         invalidate();
     }
 
     /**
-     * Set the drawable of flow anim.
+     * Set the color of one band, the bands are then drawn one by one instead of at once.
      *
-     * @param drawable GradientDrawable
+     * @param band  the band, {@link GrainGeometry#BAND_TOP_1} ... {@link GrainGeometry#BAND_BOTTOM_1}
+     * @param color the color
      */
-    private void setAnimDrawable(GradientDrawable drawable) {
-        this.mFlowLightShadowDrawable = drawable;
+    public void setBandColor(int band, @ColorInt int color) {
+        if (0 > band || GrainGeometry.BAND_COUNT <= band) {
+            throw new IllegalArgumentException("Unknown band " + band);
+        }
+        if (null == mBandColors) {
+            mBandColors = new int[GrainGeometry.BAND_COUNT];
+        }
+        mBandColors[band] = color;
+        mBandColorMask |= 1 << band;
+        this.mIsStaticLayerDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Clear the colors of all bands, all bands are drawn at once in the color of grain again.
+     */
+    public void clearBandColors() {
+        if (0 == mBandColorMask) {
+            return;
+        }
+        mBandColorMask = 0;
+        this.mIsStaticLayerDirty = true;
         invalidate();
     }
 
+    /**
+     * Return whether the static grain layer is cached into a Bitmap.
+     *
+     * @return true cached, false drawn every frame
+     */
+    public boolean isStaticLayerCacheEnabled() {
+        return mIsStaticLayerCacheEnabled;
+    }
+
+    /**
+     * Set whether the static grain layer is cached into a Bitmap. When enabled, the bands
+     * are drawn once per size and color and the Bitmap is drawn every frame, so only the
+     * flow light is drawn again during anim. The Bitmap is released when detached.
+     *
+     * @param enabled true cached, false drawn every frame
+     */
+    public void setStaticLayerCacheEnabled(boolean enabled) {
+        if (mIsStaticLayerCacheEnabled == enabled) {
+            return;
+        }
+        this.mIsStaticLayerCacheEnabled = enabled;
+        if (!enabled) {
+            releaseStaticLayer();
+        }
+        invalidate();
+    }
+
+    /**
+     * Return whether the static grain layer is recorded into a Picture.
+     *
+     * @return true recorded, false drawn every frame
+     */
+    public boolean isStaticLayerPictureEnabled() {
+        return mIsStaticLayerPictureEnabled;
+    }
+
+    /**
+     * Set whether the static grain layer is recorded into a Picture. When enabled, the bands
+     * are recorded once per geometry and color and the Picture is replayed every frame, so
+     * the Paths are not walked again, without the memory of a Bitmap as large as the view.
+     * A hardware canvas below M can not replay it, the bands are drawn directly there. The
+     * Bitmap cache wins when both are enabled, see {@link #setStaticLayerCacheEnabled(boolean)}.
+     *
+     * @param enabled true recorded, false drawn every frame
+     */
+    public void setStaticLayerPictureEnabled(boolean enabled) {
+        if (mIsStaticLayerPictureEnabled == enabled) {
+            return;
+        }
+        this.mIsStaticLayerPictureEnabled = enabled;
+        if (!enabled) {
+            mStaticLayerPicture = null;
+            mIsStaticLayerDirty = true;
+        }
+        invalidate();
+    }
+
+    /**
+     * Return the speed of flow light.
+     *
+     * @return the speed.(px/s)
+     */
+    public float getFlowLightSpeed() {
+        return mFlowLightSpeed;
+    }
+
+    /**
+     * Set the speed of flow light. The position is computed from the elapsed frame time,
+     * so the speed stays the same when frames are dropped.
+     *
+     * @param speed the speed.(px/s)
+     */
+    public void setFlowLightSpeed(float speed) {
+        if (0 > speed) {
+            throw new IllegalArgumentException("speed < 0");
+        }
+        this.mFlowLightSpeed = speed;
+    }
+
+    /**
+     * Move the flow light to the phase of its sweep, for still frames and rendering tests.
+     * It applies to the current size and is reset when the size changes.
+     *
+     * @param phase the phase, 0 is the light just left of the view, wraps at 1
+     */
+    public void setFlowLightPhase(float phase) {
+        Rect light = mFlowLightShadowDestRect;
+        int lightWidth = light.width();
+        float period = mViewWidth + lightWidth;
+        mFlowLightX = (phase - (float) Math.floor(phase)) * period - lightWidth;
+        light.offsetTo((int) mFlowLightX, light.top);
+        for (int i = 0, count = mFlowLights.size(); i < count; i++) {
+            mFlowLights.get(i).setPhase(mViewWidth, phase);
+        }
+        mIsFlowLightStripDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Return whether the flow light follows the shared phase of ticker.
+     *
+     * @return true shared phase, false own phase
+     */
+    public boolean isSharedPhase() {
+        return mIsSharedPhase;
+    }
+
+    /**
+     * Set whether the flow light follows the shared phase of ticker. When enabled, the
+     * position is computed from the shared clock of {@link GrainAnimTicker}, so the lights
+     * of views with the same size and speed sweep in sync.
+     *
+     * @param sharedPhase true shared phase, false own phase
+     */
+    public void setSharedPhase(boolean sharedPhase) {
+        this.mIsSharedPhase = sharedPhase;
+    }
+
+    /**
+     * Set the colors of flow light, from left to right.
+     *
+     * @param colors the colors, at least two
+     */
+    public void setFlowLightColors(@ColorInt int... colors) {
+        if (null == colors || 2 > colors.length) {
+            throw new IllegalArgumentException("needs at least two colors");
+        }
+        this.mFlowLightColors = colors.clone();
+        invalidate();
+    }
+
+    /**
+     * Add a flow light. When any is added, the added lights replace the default flow light,
+     * and all of them are composed into one strip and drawn together in one clipped pass, so
+     * the cost of a frame stays close to one light however many are added.
+     *
+     * @param light the GrainFlowLight, starting at phase 0
+     */
+    public void addFlowLight(@NonNull GrainFlowLight light) {
+        light.setPhase(mViewWidth, 0);
+        light.markDrawn();
+        mFlowLights.add(light);
+        mIsFlowLightStripDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Remove a flow light added.
+     *
+     * @param light the GrainFlowLight
+     */
+    public void removeFlowLight(GrainFlowLight light) {
+        if (mFlowLights.remove(light)) {
+            mIsFlowLightStripDirty = true;
+            invalidate();
+        }
+    }
+
+    /**
+     * Remove all flow lights added, the default flow light is drawn again.
+     */
+    public void clearFlowLights() {
+        if (mFlowLights.isEmpty()) {
+            return;
+        }
+        mFlowLights.clear();
+        mFlowLightStrip.release();
+        mIsFlowLightStripDirty = true;
+        invalidate();
+    }
+
+    /**
+     * Return the flow lights added.
+     *
+     * @return the unmodifiable List of GrainFlowLight
+     */
+    @NonNull
+    public List<GrainFlowLight> getFlowLights() {
+        return Collections.unmodifiableList(mFlowLights);
+    }
+
+    /**
+     * Return whether the process wide geometry cache enabled.
+     *
+     * @return true enabled, false disabled
+     */
+    public boolean isGeometryCacheEnabled() {
+        return mIsGeometryCacheEnabled;
+    }
+
+    /**
+     * Set the process wide geometry cache enabled. When enabled, views of the same size
+     * share one set of Paths instead of building their own.
+     *
+     * @param enabled true enabled, false disabled
+     */
+    public void setGeometryCacheEnabled(boolean enabled) {
+        if (mIsGeometryCacheEnabled == enabled) {
+            return;
+        }
+        this.mIsGeometryCacheEnabled = enabled;
+        if (null != mPathSet) {
+            initView(mViewWidth, mViewHeight);
+            invalidate();
+        }
+    }
+
+    /**
+     * Return whether the geometry is prepared off the UI thread.
+     *
+     * @return true async, false sync
+     */
+    public boolean isAsyncGeometryEnabled() {
+        return mIsAsyncGeometryEnabled;
+    }
+
+    /**
+     * Set whether the geometry is prepared off the UI thread. When enabled, a layout pass
+     * never blocks on building Paths, the last valid geometry is drawn until the new one
+     * is published, and nothing is drawn before the first one.
+     *
+     * @param enabled true async, false sync
+     */
+    public void setAsyncGeometryEnabled(boolean enabled) {
+        this.mIsAsyncGeometryEnabled = enabled;
+    }
+
+    /**
+     * Return the max error allowed by level of detail of geometry.
+     *
+     * @return the tolerance.(px)
+     */
+    public float getLodTolerance() {
+        return mLodTolerance;
+    }
+
+    /**
+     * Set the max error allowed by level of detail of geometry. A small view merges its bands
+     * into one outline when the gaps between them are within the tolerance, and also collapses
+     * the arcs into lines when their chords are within it, see {@link GrainGeometry#getLod()}.
+     *
+     * @param tolerance the tolerance, 0 to always draw the full detail.(px)
+     */
+    public void setLodTolerance(float tolerance) {
+        tolerance = Math.max(0, tolerance);
+        if (mLodTolerance == tolerance) {
+            return;
+        }
+        this.mLodTolerance = tolerance;
+        if (null != mPathSet) {
+            initView(mViewWidth, mViewHeight);
+            invalidate();
+        }
+    }
+
+    /**
+     * Return the max distance of chords from arcs when flattened.
+     *
+     * @return the tolerance, 0 to keep arcs.(px)
+     */
+    public float getArcFlatteningTolerance() {
+        return mArcFlatteningTolerance;
+    }
+
+    /**
+     * Set the max distance of chords from arcs. When positive, the arcs are flattened once
+     * into polylines when the geometry is built, so the Paths only hold lines and are not
+     * tessellated again on every draw or clip, and {@link #isPointInGrain(float, float)} tests the
+     * same polylines.
+     *
+     * @param tolerance the tolerance, 0 to keep arcs.(px)
+     */
+    public void setArcFlatteningTolerance(float tolerance) {
+        tolerance = Math.max(0, tolerance);
+        if (mArcFlatteningTolerance == tolerance) {
+            return;
+        }
+        this.mArcFlatteningTolerance = tolerance;
+        if (null != mPathSet) {
+            initView(mViewWidth, mViewHeight);
+            invalidate();
+        }
+    }
+
+    /**
+     * Return the tunable parameters of geometry.
+     *
+     * @return a copy of GrainSpec
+     */
+    @NonNull
+    public GrainSpec getSpec() {
+        return new GrainSpec(mSpec);
+    }
+
+    /**
+     * Set the tunable parameters of geometry. With the geometry cache and async geometry
+     * disabled, only the values the spec changed are derived again and the own Paths are
+     * rebuilt in place, without measuring or allocating, so it is cheap enough to tune on
+     * every frame.
+     *
+     * @param spec the GrainSpec, copied
+     */
+    public void setSpec(@NonNull GrainSpec spec) {
+        if (mSpec.equals(spec)) {
+            return;
+        }
+        mSpec.set(spec);
+        if (null == mPathSet) {
+            return;
+        }
+        if (null != mOwnPathSet && mPathSet == mOwnPathSet) {
+            updateOwnPathSet(mGrainHelper.setSpec(mSpec));
+        } else {
+            initView(mViewWidth, mViewHeight);
+        }
+        invalidate();
+    }
+
+    /**
+     * Build the own Paths again in place after the spec of helper changed.
+     *
+     * @param changed true the spec of helper changed, false nothing to build
+     */
+    private void updateOwnPathSet(boolean changed) {
+        if (!changed) {
+            return;
+        }
+        long startNanos = null == mMetrics ? 0 : System.nanoTime();
+        if (mOwnPathSet.isBaked()) {
+            // the helper was never measured for the baked size
+            mOwnPathSet.build(GrainBakedGeometryAsset.peek(), mGrainHelper, mViewWidth, mViewHeight,
+                    getContext().getResources().getDisplayMetrics().density);
+        } else {
+            mOwnPathSet.build(mGrainHelper);
+        }
+        mIsStaticLayerDirty = true;
+        mIsFlowLightMaskDirty = true;
+        if (null != mMetrics) {
+            mMetrics.recordBuild(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Return whether the peaks are animated live.
+     *
+     * @return true live, false not
+     */
+    public boolean isLivePeaksEnabled() {
+        return mIsLivePeaksEnabled;
+    }
+
+    /**
+     * Set whether the peaks are animated live, like a meter. When enabled, the view always
+     * builds its own Paths synchronously, bypassing the geometry cache and async geometry,
+     * so {@link #setPeakHeightRatios(float, float, float, float)} rebuilds them in place.
+     *
+     * @param enabled true live, false not
+     */
+    public void setLivePeaksEnabled(boolean enabled) {
+        if (mIsLivePeaksEnabled == enabled) {
+            return;
+        }
+        this.mIsLivePeaksEnabled = enabled;
+        if (null != mPathSet) {
+            initView(mViewWidth, mViewHeight);
+            invalidate();
+        }
+    }
+
+    /**
+     * Set the height ratios of the four peaks from left, for driving them from live levels on
+     * every frame. With live peaks enabled, only the heights of peaks are derived again and
+     * the own Paths are rebuilt in place without allocating, see {@link #setLivePeaksEnabled(boolean)}.
+     *
+     * @param ratio1 the ratio of the first peak for height, clamped to 0 ... 0.5
+     * @param ratio2 the ratio of the second peak for height, clamped to 0 ... 0.5
+     * @param ratio3 the ratio of the third peak for height, clamped to 0 ... 0.5
+     * @param ratio4 the ratio of the fourth peak for height, clamped to 0 ... 0.5
+     */
+    public void setPeakHeightRatios(float ratio1, float ratio2, float ratio3, float ratio4) {
+        float[] ratios = mLivePeakRatios;
+        ratios[0] = clampPeakRatio(ratio1);
+        ratios[1] = clampPeakRatio(ratio2);
+        ratios[2] = clampPeakRatio(ratio3);
+        ratios[3] = clampPeakRatio(ratio4);
+        boolean changed = false;
+        for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+            if (mSpec.getPeakHeightRatio(peak) != ratios[peak]) {
+                mSpec.setPeakHeightRatio(peak, ratios[peak]);
+                changed = true;
+            }
+        }
+        if (!changed || null == mPathSet) {
+            return;
+        }
+        if (null != mOwnPathSet && mPathSet == mOwnPathSet) {
+            updateOwnPathSet(mGrainHelper.setPeakHeightRatios(ratios));
+        } else {
+            initView(mViewWidth, mViewHeight);
+        }
+        invalidate();
+    }
+
+    private static float clampPeakRatio(float ratio) {
+        return ratio > 0.5f ? 0.5f : ratio > 0 ? ratio : 0;
+    }
+
+    /**
+     * Return whether the point is on the grain. It is exact within the tolerance when the
+     * arcs are flattened, see {@link #setArcFlatteningTolerance(float)}, otherwise within
+     * {@link com.rhino.grainview.view.geometry.GrainPolyline#DEFAULT_TOLERANCE}, the kept arcs
+     * flattened on the first test.
+     *
+     * @param x the x in the view
+     * @param y the y in the view
+     * @return true on the grain, false not
+     */
+    public boolean isPointInGrain(float x, float y) {
+        return null != mPathSet && mPathSet.contains(x, y - mViewHeight / 2);
+    }
+
+    /**
+     * Return whether the flow light is composited through a cached alpha mask.
+     *
+     * @return true mask, false clipPath
+     */
+    public boolean isFlowLightMaskEnabled() {
+        return mIsFlowLightMaskEnabled;
+    }
+
+    /**
+     * Set whether the flow light is composited through a cached alpha mask. When enabled,
+     * the outline of all bands is drawn once per size into an ALPHA_8 Bitmap, and each frame
+     * only the part under the flow light is drawn, colored by the gradient shader, instead of
+     * clipping the canvas with the whole outline. The mask is released when detached.
+     *
+     * @param enabled true mask, false clipPath
+     */
+    public void setFlowLightMaskEnabled(boolean enabled) {
+        if (mIsFlowLightMaskEnabled == enabled) {
+            return;
+        }
+        this.mIsFlowLightMaskEnabled = enabled;
+        if (!enabled) {
+            releaseFlowLightMask();
+        }
+        invalidate();
+    }
+
+    /**
+     * Return whether the rendering metrics enabled.
+     *
+     * @return true enabled, false disabled
+     */
+    public boolean isMetricsEnabled() {
+        return null != mMetrics;
+    }
+
+    /**
+     * Set whether the rendering metrics enabled. When enabled, the time of draw and geometry
+     * build and the frames missed by anim are recorded without allocating.
+     *
+     * @param enabled true enabled, false disabled
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled && null == mMetrics) {
+            mMetrics = new GrainViewMetrics();
+            updateMetricsFrameInterval();
+        } else if (!enabled) {
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * Set the frame interval of metrics from the refresh rate of the display attached to,
+     * so missed frames are counted right on displays other than 60Hz.
+     */
+    @SuppressWarnings("deprecation")
+    private void updateMetricsFrameInterval() {
+        if (null == mMetrics || !mIsAttached) {
+            return;
+        }
+        Display display;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            display = getDisplay();
+        } else {
+            WindowManager windowManager = (WindowManager) getContext()
+                    .getSystemService(Context.WINDOW_SERVICE);
+            display = null == windowManager ? null : windowManager.getDefaultDisplay();
+        }
+        if (null == display) {
+            return;
+        }
+        float refreshRate = display.getRefreshRate();
+        if (0 < refreshRate) {
+            mMetrics.setFrameIntervalNanos((long) (1000000000L / refreshRate));
+        }
+    }
+
+    /**
+     * Return the rendering metrics.
+     *
+     * @return GrainViewMetrics, null when disabled
+     */
+    public GrainViewMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Return the Paths drawn.
+     *
+     * @return GrainPathSet, null before measured or loaded
+     */
+    GrainPathSet getPathSet() {
+        return mPathSet;
+    }
+
     /**
      * Return whether anim showed.
      * @return true showed, false not showed
@@ -364,6 +1452,7 @@ public class GrainView extends View {
      */
     public void setAnimShow(boolean show) {
         this.mIsAnimShow = show;
+        updateAnimRunning();
         invalidate();
     }
 }
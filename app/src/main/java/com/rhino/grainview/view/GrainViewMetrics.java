@@ -0,0 +1,316 @@
+package com.rhino.grainview.view;
+
+
+import java.util.Arrays;
+
+/**
+ * <p>The rendering metrics of one {@link GrainView}.</p>
+ * <p>Recording only updates primitive counters, so it allocates nothing on the drawing
+ * and anim path. It must only be used on the UI thread.</p>
+ **/
+public class GrainViewMetrics {
+
+    /**
+     * The upper bounds of draw time buckets, the last bucket has no upper bound.(us)
+     */
+    private static final long[] DRAW_TIME_BUCKET_BOUNDS_US = new long[]{
+            250, 500, 1000, 2000, 4000, 8000, 16000};
+    /**
+     * The default frame interval, 60Hz.(ns)
+     */
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    /**
+     * The listener of metrics.
+     */
+    public interface OnMetricsListener {
+        /**
+         * Called on the UI thread once per report interval while the view draws.
+         *
+         * @param snapshot the Snapshot
+         */
+        void onMetrics(Snapshot snapshot);
+    }
+
+    /**
+     * The counts of draw time buckets.
+     */
+    private final long[] mDrawTimeBuckets = new long[DRAW_TIME_BUCKET_BOUNDS_US.length + 1];
+    /**
+     * The count of draw.
+     */
+    private long mDrawCount;
+    /**
+     * The total time of draw.(ns)
+     */
+    private long mDrawTimeTotalNanos;
+    /**
+     * The max time of draw.(ns)
+     */
+    private long mDrawTimeMaxNanos;
+    /**
+     * The count of geometry build.
+     */
+    private long mBuildCount;
+    /**
+     * The total time of geometry build.(ns)
+     */
+    private long mBuildTimeTotalNanos;
+    /**
+     * The time of last geometry build.(ns)
+     */
+    private long mBuildTimeLastNanos;
+    /**
+     * The count of anim ticks.
+     */
+    private long mTickCount;
+    /**
+     * The count of frames missed between anim ticks.
+     */
+    private long mMissedFrameCount;
+    /**
+     * The expected interval between anim ticks.(ns)
+     */
+    private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    /**
+     * The listener of metrics.
+     */
+    private OnMetricsListener mOnMetricsListener;
+    /**
+     * The interval of report to listener.(ms)
+     */
+    private long mReportIntervalMillis;
+    /**
+     * The time of last report.(ns)
+     */
+    private long mLastReportNanos;
+
+    /**
+     * Record the time of one draw.
+     *
+     * @param drawTimeNanos the time of draw.(ns)
+     */
+    public void recordDraw(long drawTimeNanos) {
+        mDrawCount++;
+        mDrawTimeTotalNanos += drawTimeNanos;
+        if (drawTimeNanos > mDrawTimeMaxNanos) {
+            mDrawTimeMaxNanos = drawTimeNanos;
+        }
+        long drawTimeUs = drawTimeNanos / 1000;
+        int bucket = 0;
+        while (bucket < DRAW_TIME_BUCKET_BOUNDS_US.length && drawTimeUs >= DRAW_TIME_BUCKET_BOUNDS_US[bucket]) {
+            bucket++;
+        }
+        mDrawTimeBuckets[bucket]++;
+        dispatchIfNeeded();
+    }
+
+    /**
+     * Record the time of one geometry build.
+     *
+     * @param buildTimeNanos the time of build.(ns)
+     */
+    public void recordBuild(long buildTimeNanos) {
+        mBuildCount++;
+        mBuildTimeTotalNanos += buildTimeNanos;
+        mBuildTimeLastNanos = buildTimeNanos;
+    }
+
+    /**
+     * Record one anim tick, the frames missed since the previous tick are counted.
+     *
+     * @param elapsedNanos the time since the previous tick, 0 for the first tick.(ns)
+     */
+    public void recordTick(long elapsedNanos) {
+        mTickCount++;
+        if (0 < elapsedNanos) {
+            long missed = (elapsedNanos + mFrameIntervalNanos / 2) / mFrameIntervalNanos - 1;
+            if (0 < missed) {
+                mMissedFrameCount += missed;
+            }
+        }
+    }
+
+    /**
+     * Set the expected interval between anim ticks, GrainView sets it from the refresh rate
+     * of display when attached.
+     *
+     * @param frameIntervalNanos the interval.(ns)
+     */
+    public void setFrameIntervalNanos(long frameIntervalNanos) {
+        if (0 >= frameIntervalNanos) {
+            throw new IllegalArgumentException("frameIntervalNanos <= 0");
+        }
+        this.mFrameIntervalNanos = frameIntervalNanos;
+    }
+
+    /**
+     * Set the listener of metrics.
+     *
+     * @param listener             the OnMetricsListener, null to remove
+     * @param reportIntervalMillis the interval of report.(ms)
+     */
+    public void setOnMetricsListener(OnMetricsListener listener, long reportIntervalMillis) {
+        this.mOnMetricsListener = listener;
+        this.mReportIntervalMillis = reportIntervalMillis;
+        this.mLastReportNanos = System.nanoTime();
+    }
+
+    /**
+     * Clear all counters.
+     */
+    public void reset() {
+        Arrays.fill(mDrawTimeBuckets, 0);
+        mDrawCount = 0;
+        mDrawTimeTotalNanos = 0;
+        mDrawTimeMaxNanos = 0;
+        mBuildCount = 0;
+        mBuildTimeTotalNanos = 0;
+        mBuildTimeLastNanos = 0;
+        mTickCount = 0;
+        mMissedFrameCount = 0;
+    }
+
+    /**
+     * Return a snapshot of all counters.
+     *
+     * @return Snapshot
+     */
+    public Snapshot snapshot() {
+        GrainGeometryCache cache = GrainGeometryCache.getInstance();
+        return new Snapshot(this, cache.getHitCount(), cache.getMissCount());
+    }
+
+    private void dispatchIfNeeded() {
+        if (null == mOnMetricsListener) {
+            return;
+        }
+        long now = System.nanoTime();
+        if ((now - mLastReportNanos) / 1000000 >= mReportIntervalMillis) {
+            mLastReportNanos = now;
+            mOnMetricsListener.onMetrics(snapshot());
+        }
+    }
+
+    /**
+     * The immutable snapshot of metrics.
+     */
+    public static class Snapshot {
+        private final long[] drawTimeBuckets;
+        private final long drawCount;
+        private final long drawTimeTotalNanos;
+        private final long drawTimeMaxNanos;
+        private final long buildCount;
+        private final long buildTimeTotalNanos;
+        private final long buildTimeLastNanos;
+        private final long tickCount;
+        private final long missedFrameCount;
+        private final int cacheHitCount;
+        private final int cacheMissCount;
+
+        private Snapshot(GrainViewMetrics metrics, int cacheHitCount, int cacheMissCount) {
+            this.drawTimeBuckets = metrics.mDrawTimeBuckets.clone();
+            this.drawCount = metrics.mDrawCount;
+            this.drawTimeTotalNanos = metrics.mDrawTimeTotalNanos;
+            this.drawTimeMaxNanos = metrics.mDrawTimeMaxNanos;
+            this.buildCount = metrics.mBuildCount;
+            this.buildTimeTotalNanos = metrics.mBuildTimeTotalNanos;
+            this.buildTimeLastNanos = metrics.mBuildTimeLastNanos;
+            this.tickCount = metrics.mTickCount;
+            this.missedFrameCount = metrics.mMissedFrameCount;
+            this.cacheHitCount = cacheHitCount;
+            this.cacheMissCount = cacheMissCount;
+        }
+
+        /**
+         * Return the upper bounds of draw time buckets, the last bucket has no upper bound.
+         *
+         * @return the upper bounds.(us)
+         */
+        public long[] getDrawTimeBucketBoundsMicros() {
+            return DRAW_TIME_BUCKET_BOUNDS_US.clone();
+        }
+
+        /**
+         * Return the counts of draw time buckets, one more than the bounds.
+         *
+         * @return the counts
+         */
+        public long[] getDrawTimeBuckets() {
+            return drawTimeBuckets.clone();
+        }
+
+        public long getDrawCount() {
+            return drawCount;
+        }
+
+        public long getDrawTimeAverageNanos() {
+            return 0 == drawCount ? 0 : drawTimeTotalNanos / drawCount;
+        }
+
+        public long getDrawTimeMaxNanos() {
+            return drawTimeMaxNanos;
+        }
+
+        public long getBuildCount() {
+            return buildCount;
+        }
+
+        public long getBuildTimeAverageNanos() {
+            return 0 == buildCount ? 0 : buildTimeTotalNanos / buildCount;
+        }
+
+        public long getBuildTimeLastNanos() {
+            return buildTimeLastNanos;
+        }
+
+        public long getTickCount() {
+            return tickCount;
+        }
+
+        public long getMissedFrameCount() {
+            return missedFrameCount;
+        }
+
+        /**
+         * Return the count of hit of the process wide geometry cache.
+         *
+         * @return the count of hit
+         */
+        public int getCacheHitCount() {
+            return cacheHitCount;
+        }
+
+        /**
+         * Return the count of miss of the process wide geometry cache.
+         *
+         * @return the count of miss
+         */
+        public int getCacheMissCount() {
+            return cacheMissCount;
+        }
+
+        /**
+         * Return the hit rate of the process wide geometry cache.
+         *
+         * @return the hit rate, 0 when never used
+         */
+        public float getCacheHitRate() {
+            int total = cacheHitCount + cacheMissCount;
+            return 0 == total ? 0 : (float) cacheHitCount / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{drawCount=" + drawCount
+                    + ", drawAvgUs=" + getDrawTimeAverageNanos() / 1000
+                    + ", drawMaxUs=" + drawTimeMaxNanos / 1000
+                    + ", drawBuckets=" + Arrays.toString(drawTimeBuckets)
+                    + ", buildCount=" + buildCount
+                    + ", buildAvgUs=" + getBuildTimeAverageNanos() / 1000
+                    + ", tickCount=" + tickCount
+                    + ", missedFrames=" + missedFrameCount
+                    + ", cacheHitRate=" + getCacheHitRate() + '}';
+        }
+    }
+}
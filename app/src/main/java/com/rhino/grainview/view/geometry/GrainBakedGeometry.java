@@ -0,0 +1,252 @@
+package com.rhino.grainview.view.geometry;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * <p>The grain outlines of many sizes, computed ahead of time into one compact binary asset.</p>
+ * <p>The asset starts with a header and an index of entries, each entry keyed by width, height
+ * and density and pointing at its coordinates and opcodes. Bands are read straight out of the
+ * buffer, which may be memory mapped, without copying into arrays.</p>
+ * <pre>
+ * header: int magic, int version, float lodTolerance, int entryCount
+ * entry:  int width, int height, float density, int coordOffset, int opOffset, int[BAND_COUNT] bandOpCount
+ * data:   float[] coords, byte[] ops of every entry
+ * </pre>
+ **/
+public class GrainBakedGeometry {
+
+    /**
+     * The magic of asset, "GRNB".
+     */
+    public static final int MAGIC = 0x47524E42;
+    /**
+     * The version of asset format.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The size of header.(byte)
+     */
+    private static final int HEADER_SIZE = 4 * 4;
+    /**
+     * The size of one index entry.(byte)
+     */
+    private static final int ENTRY_SIZE = (5 + GrainGeometry.BAND_COUNT) * 4;
+
+    /**
+     * The buffer of asset, big endian.
+     */
+    private final ByteBuffer mBuffer;
+    /**
+     * The tolerance of level of detail the asset is baked with.(px)
+     */
+    private final float mLodTolerance;
+    /**
+     * The count of entries.
+     */
+    private final int mEntryCount;
+
+    /**
+     * Read the asset from the buffer, the buffer is kept and must not be modified.
+     *
+     * @param buffer the buffer of asset, from position 0
+     * @throws IllegalArgumentException when the buffer is not a valid asset
+     */
+    public GrainBakedGeometry(ByteBuffer buffer) {
+        this.mBuffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (mBuffer.limit() < HEADER_SIZE || MAGIC != mBuffer.getInt(0)) {
+            throw new IllegalArgumentException("Not a baked grain geometry");
+        }
+        if (VERSION != mBuffer.getInt(4)) {
+            throw new IllegalArgumentException("Unsupported version " + mBuffer.getInt(4));
+        }
+        this.mLodTolerance = mBuffer.getFloat(8);
+        this.mEntryCount = mBuffer.getInt(12);
+        if (0 > mEntryCount || mBuffer.limit() < HEADER_SIZE + mEntryCount * ENTRY_SIZE) {
+            throw new IllegalArgumentException("Bad entry count " + mEntryCount);
+        }
+    }
+
+    /**
+     * Return the tolerance of level of detail the asset is baked with.
+     *
+     * @return the tolerance.(px)
+     */
+    public float getLodTolerance() {
+        return mLodTolerance;
+    }
+
+    /**
+     * Return the count of entries.
+     *
+     * @return the count of entries
+     */
+    public int getEntryCount() {
+        return mEntryCount;
+    }
+
+    /**
+     * Return the entry of the size.
+     *
+     * @param width   the width of view
+     * @param height  the height of view
+     * @param density the density of display
+     * @return the entry, -1 when the size is not baked
+     */
+    public int indexOf(int width, int height, float density) {
+        for (int entry = 0; entry < mEntryCount; entry++) {
+            int position = HEADER_SIZE + entry * ENTRY_SIZE;
+            if (width == mBuffer.getInt(position)
+                    && height == mBuffer.getInt(position + 4)
+                    && Float.compare(density, mBuffer.getFloat(position + 8)) == 0) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replay one band of the entry into the sink.
+     *
+     * @param entry the entry from {@link #indexOf(int, int, float)}
+     * @param band  the band
+     * @param sink  the GrainPathSink to write
+     */
+    public void buildBand(int entry, int band, GrainPathSink sink) {
+        int position = HEADER_SIZE + entry * ENTRY_SIZE;
+        int coord = mBuffer.getInt(position + 12);
+        int op = mBuffer.getInt(position + 16);
+        // skip the bands before
+        for (int i = 0; i < band; i++) {
+            int opCount = mBuffer.getInt(position + 20 + i * 4);
+            for (int j = 0; j < opCount; j++) {
+                coord += GrainPathBuffer.getOperandCount(mBuffer.get(op++)) * 4;
+            }
+        }
+        int opEnd = op + mBuffer.getInt(position + 20 + band * 4);
+        ByteBuffer b = mBuffer;
+        for (; op < opEnd; op++) {
+            byte code = b.get(op);
+            switch (code) {
+                case GrainPathBuffer.OP_MOVE_TO:
+                    sink.moveTo(b.getFloat(coord), b.getFloat(coord + 4));
+                    break;
+                case GrainPathBuffer.OP_LINE_TO:
+                    sink.lineTo(b.getFloat(coord), b.getFloat(coord + 4));
+                    break;
+                case GrainPathBuffer.OP_ARC_TO:
+                    sink.arcTo(b.getFloat(coord), b.getFloat(coord + 4), b.getFloat(coord + 8),
+                            b.getFloat(coord + 12), b.getFloat(coord + 16), b.getFloat(coord + 20));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown op " + code);
+            }
+            coord += GrainPathBuffer.getOperandCount(code) * 4;
+        }
+    }
+
+    /**
+     * Measure the geometry of every size and write the asset, built on the calling thread.
+     *
+     * @param out       the stream to write
+     * @param tolerance the tolerance of level of detail.(px)
+     * @param widths    the widths of view
+     * @param heights   the heights of view, the same length as widths
+     * @param densities the densities of display, the same length as widths
+     * @throws IOException when writing failed
+     */
+    public static void write(DataOutputStream out, float tolerance, int[] widths, int[] heights, float[] densities) throws IOException {
+        GrainGeometrySnapshot[] snapshots = measure(tolerance, widths, heights, densities);
+        write(out, tolerance, widths, heights, densities, GrainGeometrySnapshot.buildBands(snapshots));
+    }
+
+    /**
+     * Measure the geometry of every size and write the asset, the outlines of all sizes are
+     * built in parallel on the executor.
+     *
+     * @param out       the stream to write
+     * @param tolerance the tolerance of level of detail.(px)
+     * @param widths    the widths of view
+     * @param heights   the heights of view, the same length as widths
+     * @param densities the densities of display, the same length as widths
+     * @param executor  the ExecutorService building the outlines, not shut down
+     * @throws IOException          when writing failed
+     * @throws InterruptedException when interrupted while building
+     */
+    public static void write(DataOutputStream out, float tolerance, int[] widths, int[] heights, float[] densities,
+            ExecutorService executor) throws IOException, InterruptedException {
+        GrainGeometrySnapshot[] snapshots = measure(tolerance, widths, heights, densities);
+        write(out, tolerance, widths, heights, densities, GrainGeometrySnapshot.buildBands(executor, snapshots));
+    }
+
+    /**
+     * Measure the geometry of every size.
+     */
+    private static GrainGeometrySnapshot[] measure(float tolerance, int[] widths, int[] heights, float[] densities) {
+        int count = widths.length;
+        if (heights.length != count || densities.length != count) {
+            throw new IllegalArgumentException("Sizes have different lengths");
+        }
+        GrainGeometry geometry = new GrainGeometry();
+        geometry.setLodTolerance(tolerance);
+        GrainGeometrySnapshot[] snapshots = new GrainGeometrySnapshot[count];
+        for (int entry = 0; entry < count; entry++) {
+            geometry.measure(widths[entry], heights[entry], densities[entry]);
+            snapshots[entry] = geometry.snapshot();
+        }
+        return snapshots;
+    }
+
+    /**
+     * Write the built bands of every size.
+     */
+    private static void write(DataOutputStream out, float tolerance, int[] widths, int[] heights, float[] densities,
+            GrainPathBuffer[][] bands) throws IOException {
+        int count = widths.length;
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeFloat(Math.max(0, tolerance));
+        out.writeInt(count);
+        int offset = HEADER_SIZE + count * ENTRY_SIZE;
+        for (int entry = 0; entry < count; entry++) {
+            int coordCount = 0;
+            int opCount = 0;
+            for (GrainPathBuffer buffer : bands[entry]) {
+                coordCount += buffer.getCoordCount();
+                opCount += buffer.getOpCount();
+            }
+            out.writeInt(widths[entry]);
+            out.writeInt(heights[entry]);
+            out.writeFloat(densities[entry]);
+            out.writeInt(offset);
+            out.writeInt(offset + coordCount * 4);
+            for (GrainPathBuffer buffer : bands[entry]) {
+                out.writeInt(buffer.getOpCount());
+            }
+            // keep the coordinates of next entry 4 bytes aligned
+            offset += coordCount * 4 + (opCount + 3) / 4 * 4;
+        }
+        for (int entry = 0; entry < count; entry++) {
+            int opCount = 0;
+            for (GrainPathBuffer buffer : bands[entry]) {
+                for (int i = 0; i < buffer.getCoordCount(); i++) {
+                    out.writeFloat(buffer.getCoord(i));
+                }
+            }
+            for (GrainPathBuffer buffer : bands[entry]) {
+                for (int i = 0; i < buffer.getOpCount(); i++) {
+                    out.writeByte(buffer.getOp(i));
+                }
+                opCount += buffer.getOpCount();
+            }
+            for (int i = opCount; i % 4 != 0; i++) {
+                out.writeByte(0);
+            }
+        }
+        out.flush();
+    }
+}
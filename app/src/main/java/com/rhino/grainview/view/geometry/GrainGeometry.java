@@ -0,0 +1,968 @@
+package com.rhino.grainview.view.geometry;
+
+
+/**
+ * <p>The platform independent geometry of grain.</p>
+ * <p>It only uses plain java math and writes every outline into a {@link GrainPathSink},
+ * so it can be measured, cached and reused without the android runtime.</p>
+ **/
+public class GrainGeometry {
+
+    /**
+     * The band of first top.
+     */
+    public static final int BAND_TOP_1 = 0;
+    /**
+     * The band of second top.
+     */
+    public static final int BAND_TOP_2 = 1;
+    /**
+     * The band of third top.
+     */
+    public static final int BAND_TOP_3 = 2;
+    /**
+     * The band of center gap.
+     */
+    public static final int BAND_CENTER_GAP = 3;
+    /**
+     * The band of third bottom.
+     */
+    public static final int BAND_BOTTOM_3 = 4;
+    /**
+     * The band of second bottom.
+     */
+    public static final int BAND_BOTTOM_2 = 5;
+    /**
+     * The band of first bottom.
+     */
+    public static final int BAND_BOTTOM_1 = 6;
+    /**
+     * The count of bands.
+     */
+    public static final int BAND_COUNT = 7;
+
+    /**
+     * The level of detail with all bands and arcs.
+     */
+    public static final int LOD_FULL = 0;
+    /**
+     * The level of detail with all bands merged into {@link #BAND_TOP_1}, used when the gaps
+     * between bands are within the tolerance. The other bands are covered and left empty.
+     */
+    public static final int LOD_MERGED_BANDS = 1;
+    /**
+     * The level of detail of {@link #LOD_MERGED_BANDS} with arcs collapsed into lines, used when
+     * the chords of arcs are within the tolerance.
+     */
+    public static final int LOD_LINES = 2;
+    /**
+     * The default tolerance of level of detail, 0 to always build the full detail. Small views
+     * like badges may set about 0.5px to skip the detail no one can see.(px)
+     */
+    public static final float DEFAULT_LOD_TOLERANCE = 0;
+
+    /**
+     * The outlines, the full band {@code b} is bounded by the outlines {@code 2b} and {@code 2b + 1}.
+     */
+    public static final int OUTLINE_1_LEFT = 0;
+    public static final int OUTLINE_1_RIGHT = 1;
+    public static final int OUTLINE_2_LEFT = 2;
+    public static final int OUTLINE_2_RIGHT = 3;
+    public static final int OUTLINE_3_LEFT = 4;
+    public static final int OUTLINE_3_RIGHT = 5;
+    public static final int OUTLINE_TOP_4 = 6;
+    public static final int OUTLINE_BOTTOM_4 = 7;
+    public static final int OUTLINE_3_LEFT_INVERTED = 8;
+    public static final int OUTLINE_3_RIGHT_INVERTED = 9;
+    public static final int OUTLINE_2_LEFT_INVERTED = 10;
+    public static final int OUTLINE_2_RIGHT_INVERTED = 11;
+    public static final int OUTLINE_1_LEFT_INVERTED = 12;
+    public static final int OUTLINE_1_RIGHT_INVERTED = 13;
+    /**
+     * The count of outlines.
+     */
+    public static final int OUTLINE_COUNT = 14;
+
+    /**
+     * The default width of grain.(dp)
+     **/
+    private static final float DEFAULT_GRAIN_WIDTH = 1f;
+    /**
+     * The default margin line length ratio of ending for width.(2/360)
+     **/
+    private static final float DEFAULT_END_MARGIN_LINE_LENGTH_RATIO_FOR_WIDTH = 0.0056f;
+    /**
+     * The default radius ratio of peak big for width.(12/360)
+     **/
+    private static final float DEFAULT_PEAK_BIG_RADIUS_RATIO_FOR_WIDTH = 0.0333f;
+
+    /**
+     * The tunable parameters.
+     */
+    private final GrainSpec mSpec = new GrainSpec();
+    /**
+     * The density of display.
+     */
+    private float mDensity;
+    /**
+     * The width of view.
+     */
+    private int mViewWidth;
+    /**
+     * The height of view.
+     */
+    private int mViewHeight;
+    /**
+     * The margin line length scale of ending.
+     **/
+    private float mEndMarginLineLength;
+    /**
+     * The width of per grain.
+     **/
+    private float mGrainWidth;
+    /**
+     * The gap of per grain.
+     **/
+    private float mGrainGap;
+    /**
+     * The radius scale of peak big.
+     **/
+    private float mPeakBigRadius;
+    /**
+     * The y offset of peak big.
+     **/
+    private float mPeakBigYOffset;
+    /**
+     * The height scale of first peak.
+     **/
+    private float mPeakHeight1;
+    /**
+     * The height scale of second peak.
+     **/
+    private float mPeakHeight2;
+    /**
+     * The height scale of third peak.
+     **/
+    private float mPeakHeight3;
+    /**
+     * The height scale of fourth peak.
+     **/
+    private float mPeakHeight4;
+    /**
+     * The angle A left center flag.
+     */
+    private double mA;
+    /**
+     * The angle B right center flag.
+     */
+    private double mB;
+
+    /**
+     * The height of big bolt.
+     */
+    private float mCenterBigBoltHeight;
+    /**
+     * The width of big bolt.
+     */
+    private float mCenterBigBoltWidth;
+    /**
+     * The length of line left big bolt.
+     */
+    private float mCenterBigBoltLeftLineLength;
+    /**
+     * The length of line right big bolt.
+     */
+    private float mCenterBigBoltRightLineLength;
+    /**
+     * The max error allowed by level of detail, 0 to disable.(px)
+     */
+    private float mLodTolerance = DEFAULT_LOD_TOLERANCE;
+    /**
+     * The sink reused to write arcs as lines in {@link #LOD_LINES}.
+     */
+    private final ArcLineSink mArcLineSink = new ArcLineSink();
+    /**
+     * The level of detail picked from the measured size.
+     */
+    private int mLod = LOD_FULL;
+
+    public GrainGeometry() {
+    }
+
+    /**
+     * Copy the spec, the tolerance and all measured values of the geometry.
+     *
+     * @param geometry the GrainGeometry
+     */
+    public GrainGeometry(GrainGeometry geometry) {
+        this.mSpec.set(geometry.mSpec);
+        this.mDensity = geometry.mDensity;
+        this.mViewWidth = geometry.mViewWidth;
+        this.mViewHeight = geometry.mViewHeight;
+        this.mEndMarginLineLength = geometry.mEndMarginLineLength;
+        this.mGrainWidth = geometry.mGrainWidth;
+        this.mGrainGap = geometry.mGrainGap;
+        this.mPeakBigRadius = geometry.mPeakBigRadius;
+        this.mPeakBigYOffset = geometry.mPeakBigYOffset;
+        this.mPeakHeight1 = geometry.mPeakHeight1;
+        this.mPeakHeight2 = geometry.mPeakHeight2;
+        this.mPeakHeight3 = geometry.mPeakHeight3;
+        this.mPeakHeight4 = geometry.mPeakHeight4;
+        this.mA = geometry.mA;
+        this.mB = geometry.mB;
+        this.mCenterBigBoltHeight = geometry.mCenterBigBoltHeight;
+        this.mCenterBigBoltWidth = geometry.mCenterBigBoltWidth;
+        this.mCenterBigBoltLeftLineLength = geometry.mCenterBigBoltLeftLineLength;
+        this.mCenterBigBoltRightLineLength = geometry.mCenterBigBoltRightLineLength;
+        this.mLodTolerance = geometry.mLodTolerance;
+        this.mLod = geometry.mLod;
+    }
+
+    /**
+     * Measure the param.
+     *
+     * @param width   the width of view
+     * @param height  the height of view
+     * @param density the density of display
+     */
+    public void measure(int width, int height, float density) {
+        if (0 < width && 0 < height) {
+            mViewWidth = width;
+            mViewHeight = height;
+            mDensity = density;
+            derive();
+        }
+    }
+
+    /**
+     * Return the immutable snapshot of the current spec, tolerance and measured values, it
+     * is not affected by later changes of this geometry. It copies the geometry, so take it
+     * only to build off the measuring thread, not on every measure.
+     *
+     * @return GrainGeometrySnapshot
+     */
+    public GrainGeometrySnapshot snapshot() {
+        return new GrainGeometrySnapshot(this);
+    }
+
+    /**
+     * Derive all measured values from the size and the spec.
+     */
+    private void derive() {
+        mGrainWidth = dip2px(mDensity, DEFAULT_GRAIN_WIDTH);
+
+        mEndMarginLineLength = DEFAULT_END_MARGIN_LINE_LENGTH_RATIO_FOR_WIDTH * mViewWidth;
+        mPeakBigRadius = DEFAULT_PEAK_BIG_RADIUS_RATIO_FOR_WIDTH * mViewWidth;
+        mGrainGap = mSpec.getGapRatio() * mPeakBigRadius;
+        mPeakBigYOffset = mSpec.getBandsPerSide() * mGrainGap + mSpec.getCenterGapRatio() * mPeakBigRadius;
+
+        derivePeaks();
+        deriveBolt();
+        updateLod();
+    }
+
+    private void derivePeaks() {
+        mPeakHeight1 = mSpec.getPeakHeightRatio(0) * mViewHeight;
+        mPeakHeight2 = mSpec.getPeakHeightRatio(1) * mViewHeight;
+        mPeakHeight3 = mSpec.getPeakHeightRatio(2) * mViewHeight;
+        mPeakHeight4 = mSpec.getPeakHeightRatio(3) * mViewHeight;
+    }
+
+    private void deriveBolt() {
+        mA = Math.toRadians(mSpec.getBoltAngleLeft());
+        mB = Math.toRadians(mSpec.getBoltAngleRight());
+        mCenterBigBoltHeight = mSpec.getBoltHeightRatio() * mViewHeight;
+        mCenterBigBoltWidth = (float) (mCenterBigBoltHeight / Math.tan(mA) - mCenterBigBoltHeight / Math.tan(mB));
+
+        // the bolt and its lines always fill the same width between the second and third peak
+        float centerX = mViewWidth - 2 * mEndMarginLineLength - 8 * mPeakBigRadius - 8 * mPeakBigRadius;
+        float lineRatio = mSpec.getBoltLineRatio();
+        mCenterBigBoltLeftLineLength = (centerX - mCenterBigBoltWidth) / (1 + lineRatio) * lineRatio;
+        mCenterBigBoltRightLineLength = centerX - mCenterBigBoltWidth - mCenterBigBoltLeftLineLength;
+    }
+
+    /**
+     * Set the tunable parameters. Only the measured values the change touches are derived
+     * again, a change of gaps or band count moves every gap, radius and offset.
+     *
+     * @param spec the GrainSpec, copied
+     * @return true changed, false the same spec
+     */
+    public boolean setSpec(GrainSpec spec) {
+        if (mSpec.equals(spec)) {
+            return false;
+        }
+        boolean layoutChanged = mSpec.getGapRatio() != spec.getGapRatio()
+                || mSpec.getCenterGapRatio() != spec.getCenterGapRatio()
+                || mSpec.getBandsPerSide() != spec.getBandsPerSide();
+        mSpec.set(spec);
+        if (isMeasured()) {
+            if (layoutChanged) {
+                derive();
+            } else {
+                derivePeaks();
+                deriveBolt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set the height ratios of all peaks, for animating the peaks on every frame. Only the
+     * heights of peaks are derived again and nothing is allocated.
+     *
+     * @param ratios the ratios of {@link GrainSpec#PEAK_COUNT} peaks from left, 0 ... 0.5
+     * @return true changed, false the same heights
+     */
+    public boolean setPeakHeightRatios(float[] ratios) {
+        if (GrainSpec.PEAK_COUNT > ratios.length) {
+            throw new IllegalArgumentException("needs " + GrainSpec.PEAK_COUNT + " ratios");
+        }
+        boolean changed = false;
+        for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+            if (mSpec.getPeakHeightRatio(peak) != ratios[peak]) {
+                mSpec.setPeakHeightRatio(peak, ratios[peak]);
+                changed = true;
+            }
+        }
+        if (changed && isMeasured()) {
+            derivePeaks();
+        }
+        return changed;
+    }
+
+    /**
+     * Return the tunable parameters.
+     *
+     * @return GrainSpec, must not be modified, use {@link #setSpec(GrainSpec)}
+     */
+    public GrainSpec getSpec() {
+        return mSpec;
+    }
+
+    /**
+     * Set the max error allowed by level of detail, the level is picked again when measured.
+     *
+     * @param tolerance the tolerance, 0 to always build the full detail.(px)
+     */
+    public void setLodTolerance(float tolerance) {
+        mLodTolerance = Math.max(0, tolerance);
+        if (isMeasured()) {
+            updateLod();
+        }
+    }
+
+    /**
+     * Return the max error allowed by level of detail.
+     *
+     * @return the tolerance.(px)
+     */
+    public float getLodTolerance() {
+        return mLodTolerance;
+    }
+
+    /**
+     * Return the level of detail picked from the measured size.
+     *
+     * @return one of {@link #LOD_FULL}, {@link #LOD_MERGED_BANDS}, {@link #LOD_LINES}
+     */
+    public int getLod() {
+        return mLod;
+    }
+
+    private void updateLod() {
+        mLod = LOD_FULL;
+        if (0 >= mLodTolerance) {
+            return;
+        }
+        // the strips overlap or leave sub pixel gaps, their union is the outline of grain
+        if (mGrainGap - mGrainWidth <= mLodTolerance) {
+            mLod = LOD_MERGED_BANDS;
+            // the most a chord of quarter arc is away from the arc
+            if (mPeakBigRadius * (1 - Math.cos(Math.PI / 4)) <= mLodTolerance) {
+                mLod = LOD_LINES;
+            }
+        }
+    }
+
+    /**
+     * Return the width of view.
+     *
+     * @return the width of view
+     */
+    public int getViewWidth() {
+        return mViewWidth;
+    }
+
+    /**
+     * Return the height of view.
+     *
+     * @return the height of view
+     */
+    public int getViewHeight() {
+        return mViewHeight;
+    }
+
+    /**
+     * Return the density of display.
+     *
+     * @return the density of display
+     */
+    public float getDensity() {
+        return mDensity;
+    }
+
+    /**
+     * Return whether measured.
+     *
+     * @return true measured, false not measured
+     */
+    public boolean isMeasured() {
+        return 0 < mViewWidth && 0 < mViewHeight;
+    }
+
+    /**
+     * Build the band, both outlines of the band are written into the sink.
+     * The band follows the level of detail, see {@link #getLod()}.
+     *
+     * @param band the band, one of {@link #BAND_TOP_1} ... {@link #BAND_BOTTOM_1}
+     * @param sink the GrainPathSink
+     */
+    public void buildBand(int band, GrainPathSink sink) {
+        buildBandOutline(band, 0, sink);
+        buildBandOutline(band, 1, sink);
+    }
+
+    /**
+     * Build one of the two outlines of the band, following the level of detail. The sink
+     * writing arcs as lines is reused, so it must be called on one thread, see
+     * {@link GrainGeometrySnapshot} to build from many threads at once.
+     *
+     * @param band  the band, one of {@link #BAND_TOP_1} ... {@link #BAND_BOTTOM_1}
+     * @param index the outline of band, 0 or 1
+     * @param sink  the GrainPathSink
+     */
+    public void buildBandOutline(int band, int index, GrainPathSink sink) {
+        buildBandOutline(band, index, sink, mArcLineSink);
+    }
+
+    /**
+     * Build one of the two outlines of the band with the given sink writing arcs as lines.
+     * It only reads the measured values, so outlines may be built by many threads at once
+     * as long as the geometry is not changed and every thread has its own ArcLineSink.
+     *
+     * @param band        the band
+     * @param index       the outline of band, 0 or 1
+     * @param sink        the GrainPathSink
+     * @param arcLineSink the ArcLineSink used in {@link #LOD_LINES}
+     */
+    void buildBandOutline(int band, int index, GrainPathSink sink, ArcLineSink arcLineSink) {
+        int outline = getBandOutline(band, index);
+        if (0 > outline) {
+            return;
+        }
+        if (LOD_LINES != mLod) {
+            buildOutline(outline, sink);
+            return;
+        }
+        arcLineSink.set(sink, mLodTolerance);
+        buildOutline(outline, arcLineSink);
+        arcLineSink.set(null, 0);
+    }
+
+    /**
+     * Return the outline written as one of the two outlines of the band.
+     *
+     * @param band  the band, one of {@link #BAND_TOP_1} ... {@link #BAND_BOTTOM_1}
+     * @param index the outline of band, 0 or 1
+     * @return one of {@link #OUTLINE_1_LEFT} ... {@link #OUTLINE_1_RIGHT_INVERTED}, -1 when
+     * the band is empty in the level of detail or turned off by the spec
+     */
+    public int getBandOutline(int band, int index) {
+        if (0 > band || BAND_COUNT <= band) {
+            throw new IllegalArgumentException("Unknown band " + band);
+        }
+        if (0 != index && 1 != index) {
+            throw new IllegalArgumentException("Unknown outline of band " + index);
+        }
+        if (LOD_FULL != mLod) {
+            // the merged outline of grain, bounded by the outer outlines of first bands
+            if (BAND_TOP_1 != band) {
+                return -1;
+            }
+            return 0 == index ? OUTLINE_1_LEFT : OUTLINE_1_LEFT_INVERTED;
+        }
+        int bandsPerSide = mSpec.getBandsPerSide();
+        if ((BAND_CENTER_GAP > band && band >= bandsPerSide)
+                || (BAND_CENTER_GAP < band && BAND_BOTTOM_1 - band >= bandsPerSide)) {
+            // the band is turned off by the spec
+            return -1;
+        }
+        return 2 * band + index;
+    }
+
+    /**
+     * Build the outline with full detail.
+     *
+     * @param outline one of {@link #OUTLINE_1_LEFT} ... {@link #OUTLINE_1_RIGHT_INVERTED}
+     * @param sink    the GrainPathSink
+     */
+    public void buildOutline(int outline, GrainPathSink sink) {
+        switch (outline) {
+            case OUTLINE_1_LEFT:
+                buildGrainPath1FromLeft(false, sink);
+                break;
+            case OUTLINE_1_RIGHT:
+                buildGrainPath1FromRight(false, sink);
+                break;
+            case OUTLINE_2_LEFT:
+                buildGrainPath2FromLeft(false, sink);
+                break;
+            case OUTLINE_2_RIGHT:
+                buildGrainPath2FromRight(false, sink);
+                break;
+            case OUTLINE_3_LEFT:
+                buildGrainPath3FromLeft(false, sink);
+                break;
+            case OUTLINE_3_RIGHT:
+                buildGrainPath3FromRight(false, sink);
+                break;
+            case OUTLINE_TOP_4:
+                buildGrainTop4Path(sink);
+                break;
+            case OUTLINE_BOTTOM_4:
+                buildGrainBottom4Path(sink);
+                break;
+            case OUTLINE_3_LEFT_INVERTED:
+                buildGrainPath3FromLeft(true, sink);
+                break;
+            case OUTLINE_3_RIGHT_INVERTED:
+                buildGrainPath3FromRight(true, sink);
+                break;
+            case OUTLINE_2_LEFT_INVERTED:
+                buildGrainPath2FromLeft(true, sink);
+                break;
+            case OUTLINE_2_RIGHT_INVERTED:
+                buildGrainPath2FromRight(true, sink);
+                break;
+            case OUTLINE_1_LEFT_INVERTED:
+                buildGrainPath1FromLeft(true, sink);
+                break;
+            case OUTLINE_1_RIGHT_INVERTED:
+                buildGrainPath1FromRight(true, sink);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown outline " + outline);
+        }
+    }
+
+    /**
+     * Build all bands, the union of all bands is written into the sink.
+     *
+     * @param sink the GrainPathSink
+     */
+    public void buildAllBands(GrainPathSink sink) {
+        for (int band = 0; band < BAND_COUNT; band++) {
+            buildBand(band, sink);
+        }
+    }
+
+    /**
+     * Build grain path1 from left.
+     *
+     * @param inverted true bottom, false top
+     * @param sink     the GrainPathSink
+     */
+    public void buildGrainPath1FromLeft(boolean inverted, GrainPathSink sink) {
+        float gap = 0;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromLeft(gap, topRadius, bottomRadius, inverted, sink);
+    }
+
+    /**
+     * Build grain path1 from right.
+     *
+     * @param inverted true bottom, false top
+     * @param sink     the GrainPathSink
+     */
+    public void buildGrainPath1FromRight(boolean inverted, GrainPathSink sink) {
+        float gap = mGrainWidth;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromRight(gap, topRadius, bottomRadius, inverted, sink);
+    }
+
+    /**
+     * Build grain path2 from left.
+     *
+     * @param inverted true bottom, false top
+     * @param sink     the GrainPathSink
+     */
+    public void buildGrainPath2FromLeft(boolean inverted, GrainPathSink sink) {
+        float gap = mGrainGap;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromLeft(gap, topRadius, bottomRadius, inverted, sink);
+    }
+
+    /**
+     * Build grain path2 from right.
+     *
+     * @param inverted true bottom, false top
+     * @param sink     the GrainPathSink
+     */
+    public void buildGrainPath2FromRight(boolean inverted, GrainPathSink sink) {
+        float gap = mGrainGap + mGrainWidth;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromRight(gap, topRadius, bottomRadius, inverted, sink);
+    }
+
+    /**
+     * Build grain path3 from left.
+     *
+     * @param inverted true bottom, false top
+     * @param sink     the GrainPathSink
+     */
+    public void buildGrainPath3FromLeft(boolean inverted, GrainPathSink sink) {
+        float gap = 2 * mGrainGap;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromLeft(gap, topRadius, bottomRadius, inverted, sink);
+    }
+
+    /**
+     * Build grain path3 from right.
+     *
+     * @param inverted true bottom, false top
+     * @param sink     the GrainPathSink
+     */
+    public void buildGrainPath3FromRight(boolean inverted, GrainPathSink sink) {
+        float gap = 2 * mGrainGap + mGrainWidth;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromRight(gap, topRadius, bottomRadius, inverted, sink);
+    }
+
+    /**
+     * Build grain top path4 from left.
+     *
+     * @param sink the GrainPathSink
+     */
+    public void buildGrainTop4Path(GrainPathSink sink) {
+        float gap = mSpec.getBandsPerSide() * mGrainGap;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromLeft(gap, topRadius, bottomRadius, false, sink);
+    }
+
+    /**
+     * Build grain bottom path4 from right.
+     *
+     * @param sink the GrainPathSink
+     */
+    public void buildGrainBottom4Path(GrainPathSink sink) {
+        float gap = mSpec.getBandsPerSide() * mGrainGap;
+        float topRadius = mPeakBigRadius - gap;
+        float bottomRadius = mPeakBigRadius + gap;
+        buildGrainPathFromRight(gap, topRadius, bottomRadius, true, sink);
+    }
+
+
+    /**
+     * Build grain path from left.
+     *
+     * @param gap          the peak gap
+     * @param topRadius    the radius of top peak
+     * @param bottomRadius the radius of bottom peak
+     * @param inverted     true bottom, false top
+     * @param sink         the GrainPathSink
+     */
+    public void buildGrainPathFromLeft(float gap, float topRadius, float bottomRadius, boolean inverted, GrainPathSink sink) {
+
+        float yOffset = -mPeakBigYOffset + gap;
+        float centerBoltWidth = (float) (mCenterBigBoltWidth - gap / Math.sin(mA) + gap * Math.tan(Math.PI / 2 - mA) - gap / Math.sin(mB) - gap / Math.tan(mB));
+        float centerBoltHeight = (float) (centerBoltWidth * mCenterBigBoltHeight / (mCenterBigBoltHeight / Math.tan(mA) - mCenterBigBoltHeight / Math.tan(mB)));
+        float centerBoltTipOffset = (float) (centerBoltHeight / Math.tan(mB));
+        float centerBoltLeftLineLength = (float) (mCenterBigBoltLeftLineLength + gap / Math.sin(mA) - gap * Math.tan(Math.PI / 2 - mA));
+        float centerBoltRightLineLength = (float) (mCenterBigBoltRightLineLength + gap / Math.sin(mB) + gap / Math.tan(mB));
+
+        int invert = inverted ? -1 : 1;
+
+        float tmp = 0;
+        sink.moveTo(tmp, 0);
+        sink.lineTo(tmp, invert * yOffset);
+
+        // end margin line
+        tmp = mEndMarginLineLength;
+        sink.lineTo(tmp, invert * yOffset);
+
+        // arc left first peak
+        sink.arcTo(mEndMarginLineLength - bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                mEndMarginLineLength + bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -270f, invert * -90f);
+
+        // first peak
+        tmp = tmp + bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight1 + topRadius));
+        sink.arcTo(tmp,
+                inverted ? -(yOffset - mPeakHeight1 + 2 * topRadius) : (yOffset - mPeakHeight1),
+                tmp + 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight1) : (yOffset - mPeakHeight1 + 2 * topRadius),
+                invert * 180f, invert * 180f);
+        sink.lineTo(tmp + 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc between first peak and second peak
+        tmp = tmp + 2 * topRadius;
+        sink.arcTo(tmp,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + 2 * bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -180f, invert * -180f);
+
+        // second peak
+        tmp = tmp + 2 * bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight2 + topRadius));
+        sink.arcTo(tmp,
+                inverted ? -(yOffset - mPeakHeight2 + 2 * topRadius) : (yOffset - mPeakHeight2),
+                tmp + 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight2) : (yOffset - mPeakHeight2 + 2 * topRadius),
+                invert * 180f, invert * 180f);
+        sink.lineTo(tmp + 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc right second peak
+        tmp = tmp + 2 * topRadius;
+        sink.arcTo(tmp,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + 2 * bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -180f, invert * -90f);
+
+        // center flag
+        tmp = tmp + bottomRadius;
+        sink.lineTo(inverted ? tmp + centerBoltRightLineLength : tmp + centerBoltLeftLineLength, invert * yOffset);
+        sink.lineTo(inverted ? tmp + centerBoltRightLineLength - centerBoltTipOffset : tmp + centerBoltLeftLineLength + centerBoltWidth + centerBoltTipOffset, invert * (yOffset - centerBoltHeight));
+        sink.lineTo(inverted ? tmp + centerBoltRightLineLength + centerBoltWidth : tmp + centerBoltLeftLineLength + centerBoltWidth, invert * yOffset);
+        sink.lineTo(tmp + centerBoltLeftLineLength + centerBoltWidth + centerBoltRightLineLength, invert * yOffset);
+
+        // arc left third peak
+        tmp = tmp + centerBoltLeftLineLength + centerBoltWidth + centerBoltRightLineLength;
+        sink.arcTo(tmp - bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -270f, invert * -90f);
+
+        // third peak
+        tmp = tmp + bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight3 + topRadius));
+        sink.arcTo(tmp,
+                inverted ? -(yOffset - mPeakHeight3 + 2 * topRadius) : (yOffset - mPeakHeight3),
+                tmp + 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight3) : (yOffset - mPeakHeight3 + 2 * topRadius),
+                invert * 180f, invert * 180f);
+        sink.lineTo(tmp + 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc between third peak and fourth peak
+        tmp = tmp + 2 * topRadius;
+        sink.arcTo(tmp,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + 2 * bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -180f, invert * -180f);
+
+        // fourth peak
+        tmp = tmp + 2 * bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight4 + topRadius));
+        sink.arcTo(tmp,
+                inverted ? -(yOffset - mPeakHeight4 + 2 * topRadius) : (yOffset - mPeakHeight4),
+                tmp + 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight4) : (yOffset - mPeakHeight4 + 2 * topRadius),
+                invert * -180f, invert * 180f);
+        sink.lineTo(tmp + 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc right fourth peak
+        tmp = tmp + 2 * topRadius;
+        sink.arcTo(tmp,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + 2 * bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -180f, invert * -90f);
+
+        // end margin line
+        tmp = tmp + bottomRadius;
+        sink.lineTo(tmp + mEndMarginLineLength, invert * yOffset);
+        sink.lineTo(tmp + mEndMarginLineLength, 0);
+    }
+
+
+    /**
+     * Build grain path from right.
+     *
+     * @param gap          the peak gap
+     * @param topRadius    the radius of top peak
+     * @param bottomRadius the radius of bottom peak
+     * @param inverted     true bottom, false top
+     * @param sink         the GrainPathSink
+     */
+    public void buildGrainPathFromRight(float gap, float topRadius, float bottomRadius, boolean inverted, GrainPathSink sink) {
+
+        float yOffset = -mPeakBigYOffset + gap;
+        float centerBoltWidth = (float) (mCenterBigBoltWidth - gap / Math.sin(mA) + gap * Math.tan(Math.PI / 2 - mA) - gap / Math.sin(mB) - gap / Math.tan(mB));
+        float centerBoltHeight = (float) (centerBoltWidth * mCenterBigBoltHeight / (mCenterBigBoltHeight / Math.tan(mA) - mCenterBigBoltHeight / Math.tan(mB)));
+        float centerBoltTipOffset = (float) (centerBoltHeight / Math.tan(mB));
+        float centerBoltLeftLineLength = (float) (mCenterBigBoltLeftLineLength + gap / Math.sin(mA) - gap * Math.tan(Math.PI / 2 - mA));
+        float centerBoltRightLineLength = (float) (mCenterBigBoltRightLineLength + gap / Math.sin(mB) + gap / Math.tan(mB));
+
+        int invert = inverted ? -1 : 1;
+
+        float tmp = mViewWidth;
+        sink.moveTo(tmp, 0);
+        sink.lineTo(tmp, invert * yOffset);
+
+        // end margin line
+        tmp = tmp - mEndMarginLineLength;
+        sink.lineTo(tmp, invert * yOffset);
+
+        // arc right fourth peak
+        sink.arcTo(tmp - bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -270f, invert * 90f);
+
+        // fourth peak
+        tmp = tmp - bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight4 + topRadius));
+        sink.arcTo(tmp - 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight4 + 2 * topRadius) : (yOffset - mPeakHeight4),
+                tmp,
+                inverted ? -(yOffset - mPeakHeight4) : (yOffset - mPeakHeight4 + 2 * topRadius),
+                0f, invert * -180f);
+        sink.lineTo(tmp - 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc between third peak and fourth peak
+        tmp = tmp - 2 * topRadius;
+        sink.arcTo(tmp - 2 * bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                0f, invert * 180f);
+
+        // third peak
+        tmp = tmp - 2 * bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight3 + topRadius));
+        sink.arcTo(tmp - 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight3 + 2 * topRadius) : (yOffset - mPeakHeight3),
+                tmp,
+                inverted ? -(yOffset - mPeakHeight3) : (yOffset - mPeakHeight3 + 2 * topRadius),
+                0f, invert * -180f);
+        sink.lineTo(tmp - 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc left third peak
+        tmp = tmp - 2 * topRadius;
+        sink.arcTo(tmp - 2 * bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                0f, invert * 90f);
+
+        // center flag
+        tmp = tmp - bottomRadius;
+        sink.lineTo(inverted ? tmp - centerBoltLeftLineLength : tmp - centerBoltRightLineLength, invert * yOffset);
+        sink.lineTo(inverted ? tmp - centerBoltLeftLineLength - centerBoltWidth - centerBoltTipOffset : tmp - centerBoltRightLineLength + centerBoltTipOffset, invert * (yOffset - centerBoltHeight));
+        sink.lineTo(inverted ? tmp - centerBoltLeftLineLength - centerBoltWidth : tmp - centerBoltRightLineLength - centerBoltWidth, invert * yOffset);
+        sink.lineTo(tmp - centerBoltRightLineLength - centerBoltWidth - centerBoltLeftLineLength, invert * yOffset);
+
+        // arc right second peak
+        tmp = tmp - centerBoltRightLineLength - centerBoltWidth - centerBoltLeftLineLength;
+        sink.arcTo(tmp - bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp + bottomRadius,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                invert * -270f, invert * 90f);
+
+        // second peak
+        tmp = tmp - bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight2 + topRadius));
+        sink.arcTo(tmp - 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight2 + 2 * topRadius) : (yOffset - mPeakHeight2),
+                tmp,
+                inverted ? -(yOffset - mPeakHeight2) : (yOffset - mPeakHeight2 + 2 * topRadius),
+                0f, invert * -180f);
+        sink.lineTo(tmp - 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc between first peak and second peak
+        tmp = tmp - 2 * topRadius;
+        sink.arcTo(tmp - 2 * bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                0f, invert * 180f);
+
+        // first peak
+        tmp = tmp - 2 * bottomRadius;
+        sink.lineTo(tmp, invert * (yOffset - mPeakHeight1 + topRadius));
+        sink.arcTo(tmp - 2 * topRadius,
+                inverted ? -(yOffset - mPeakHeight1 + 2 * topRadius) : (yOffset - mPeakHeight1),
+                tmp,
+                inverted ? -(yOffset - mPeakHeight1) : (yOffset - mPeakHeight1 + 2 * topRadius),
+                0f, invert * -180f);
+        sink.lineTo(tmp - 2 * topRadius, invert * (yOffset - bottomRadius));
+
+        // arc left first peak
+        tmp = tmp - 2 * topRadius;
+        sink.arcTo(tmp - 2 * bottomRadius,
+                inverted ? -yOffset : (yOffset - 2 * bottomRadius),
+                tmp,
+                inverted ? -(yOffset - 2 * bottomRadius) : yOffset,
+                0f, invert * 90f);
+
+        // end margin line
+        tmp = tmp - bottomRadius;
+        sink.lineTo(tmp - mEndMarginLineLength, invert * yOffset);
+        sink.lineTo(tmp - mEndMarginLineLength, 0);
+    }
+
+    /**
+     * The sink which writes every arc as lines within the tolerance, reused between outlines.
+     */
+    static final class ArcLineSink implements GrainPathSink {
+        private GrainPathSink target;
+        private float tolerance;
+
+        void set(GrainPathSink target, float tolerance) {
+            this.target = target;
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        public void moveTo(float x, float y) {
+            target.moveTo(x, y);
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            target.lineTo(x, y);
+        }
+
+        @Override
+        public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+            GrainPolyline.flattenArc(left, top, right, bottom, startAngle, sweepAngle, tolerance, target);
+        }
+    }
+
+    /**
+     * Change dp to px.
+     *
+     * @param density the density of display
+     * @param dpValue the dp value
+     * @return the px value
+     */
+    public static int dip2px(float density, float dpValue) {
+        return (int) (dpValue * density + 0.5f);
+    }
+}
@@ -0,0 +1,239 @@
+package com.rhino.grainview.view.geometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>The immutable geometry of grain of one size, spec and tolerance.</p>
+ * <p>It is taken by {@link GrainGeometry#snapshot()} and never changes after, and building
+ * only reads the measured values, so one snapshot can be shared and built by many threads at
+ * once. The {@link GrainGeometry#OUTLINE_COUNT} outlines are independent of each other,
+ * {@link #buildBands(ExecutorService, GrainGeometrySnapshot[])} builds the outlines of many
+ * sizes as independent tasks on an executor, so a batch scales with the cores.</p>
+ **/
+public final class GrainGeometrySnapshot {
+
+    /**
+     * The max count of tasks of a batch, a few per core of a phone or a desktop are enough
+     * to balance, more only add the cost of queueing.
+     */
+    private static final int MAX_TASK_COUNT = 64;
+
+    /**
+     * The private copy of geometry, never changed after the constructor.
+     */
+    private final GrainGeometry mGeometry;
+
+    GrainGeometrySnapshot(GrainGeometry geometry) {
+        this.mGeometry = new GrainGeometry(geometry);
+    }
+
+    /**
+     * Return the width of view.
+     *
+     * @return the width of view
+     */
+    public int getViewWidth() {
+        return mGeometry.getViewWidth();
+    }
+
+    /**
+     * Return the height of view.
+     *
+     * @return the height of view
+     */
+    public int getViewHeight() {
+        return mGeometry.getViewHeight();
+    }
+
+    /**
+     * Return the density of display.
+     *
+     * @return the density of display
+     */
+    public float getDensity() {
+        return mGeometry.getDensity();
+    }
+
+    /**
+     * Return whether measured.
+     *
+     * @return true measured, false not measured
+     */
+    public boolean isMeasured() {
+        return mGeometry.isMeasured();
+    }
+
+    /**
+     * Return the level of detail.
+     *
+     * @return one of {@link GrainGeometry#LOD_FULL} ... {@link GrainGeometry#LOD_LINES}
+     */
+    public int getLod() {
+        return mGeometry.getLod();
+    }
+
+    /**
+     * Return the tolerance of level of detail.
+     *
+     * @return the tolerance.(px)
+     */
+    public float getLodTolerance() {
+        return mGeometry.getLodTolerance();
+    }
+
+    /**
+     * Return the tunable parameters.
+     *
+     * @return a copy of GrainSpec
+     */
+    public GrainSpec getSpec() {
+        return new GrainSpec(mGeometry.getSpec());
+    }
+
+    /**
+     * Build the band, see {@link GrainGeometry#buildBand(int, GrainPathSink)}.
+     *
+     * @param band the band, one of {@link GrainGeometry#BAND_TOP_1} ... {@link GrainGeometry#BAND_BOTTOM_1}
+     * @param sink the GrainPathSink
+     */
+    public void buildBand(int band, GrainPathSink sink) {
+        GrainGeometry.ArcLineSink arcLineSink = new GrainGeometry.ArcLineSink();
+        mGeometry.buildBandOutline(band, 0, sink, arcLineSink);
+        mGeometry.buildBandOutline(band, 1, sink, arcLineSink);
+    }
+
+    /**
+     * Build one of the two outlines of the band, see {@link GrainGeometry#buildBandOutline(int, int, GrainPathSink)}.
+     *
+     * @param band  the band
+     * @param index the outline of band, 0 or 1
+     * @param sink  the GrainPathSink
+     */
+    public void buildBandOutline(int band, int index, GrainPathSink sink) {
+        buildBandOutline(band, index, sink, new GrainGeometry.ArcLineSink());
+    }
+
+    void buildBandOutline(int band, int index, GrainPathSink sink, GrainGeometry.ArcLineSink arcLineSink) {
+        mGeometry.buildBandOutline(band, index, sink, arcLineSink);
+    }
+
+    /**
+     * Build all bands of this snapshot on the calling thread.
+     *
+     * @return the buffers of bands
+     */
+    public GrainPathBuffer[] buildBands() {
+        return buildBands(new GrainGeometrySnapshot[]{this})[0];
+    }
+
+    /**
+     * Build all bands of this snapshot, every outline as its own task.
+     *
+     * @param executor the ExecutorService
+     * @return the buffers of bands
+     * @throws InterruptedException when interrupted while waiting for the tasks
+     */
+    public GrainPathBuffer[] buildBands(ExecutorService executor) throws InterruptedException {
+        return buildBands(executor, new GrainGeometrySnapshot[]{this})[0];
+    }
+
+    /**
+     * Build all bands of every snapshot on the calling thread.
+     *
+     * @param snapshots the snapshots
+     * @return the buffers of bands of every snapshot, indexed by snapshot and band
+     */
+    public static GrainPathBuffer[][] buildBands(GrainGeometrySnapshot[] snapshots) {
+        GrainPathBuffer[] outlines = new GrainPathBuffer[snapshots.length * GrainGeometry.OUTLINE_COUNT];
+        new OutlineTask(snapshots, outlines, 0, outlines.length).call();
+        return joinBands(snapshots.length, outlines);
+    }
+
+    /**
+     * Build all bands of every snapshot. Both outlines of every band of every snapshot are
+     * built into their own buffers by independent tasks of a range of outlines, and joined
+     * into the band buffers.
+     * The executor is not shut down.
+     *
+     * @param executor  the ExecutorService
+     * @param snapshots the snapshots
+     * @return the buffers of bands of every snapshot, indexed by snapshot and band
+     * @throws InterruptedException when interrupted while waiting for the tasks
+     */
+    public static GrainPathBuffer[][] buildBands(ExecutorService executor, GrainGeometrySnapshot[] snapshots)
+            throws InterruptedException {
+        GrainPathBuffer[] outlines = new GrainPathBuffer[snapshots.length * GrainGeometry.OUTLINE_COUNT];
+        // a single snapshot still gets a task per outline, a batch is split into ranges
+        int rangeSize = (outlines.length + MAX_TASK_COUNT - 1) / MAX_TASK_COUNT;
+        List<OutlineTask> tasks = new ArrayList<>();
+        for (int from = 0; from < outlines.length; from += rangeSize) {
+            tasks.add(new OutlineTask(snapshots, outlines, from, Math.min(outlines.length, from + rangeSize)));
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return joinBands(snapshots.length, outlines);
+    }
+
+    /**
+     * Join the two outlines of every band into the band buffers.
+     */
+    private static GrainPathBuffer[][] joinBands(int snapshotCount, GrainPathBuffer[] outlines) {
+        GrainPathBuffer[][] bands = new GrainPathBuffer[snapshotCount][GrainGeometry.BAND_COUNT];
+        for (int i = 0; i < snapshotCount; i++) {
+            for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                GrainPathBuffer first = outlines[i * GrainGeometry.OUTLINE_COUNT + 2 * band];
+                GrainPathBuffer second = outlines[i * GrainGeometry.OUTLINE_COUNT + 2 * band + 1];
+                first.append(second);
+                bands[i][band] = first;
+            }
+        }
+        return bands;
+    }
+
+    /**
+     * The task building a range of outlines, every one into its own buffer.
+     */
+    private static class OutlineTask implements Callable<Void> {
+        private final GrainGeometrySnapshot[] snapshots;
+        private final GrainPathBuffer[] outlines;
+        private final int from;
+        private final int to;
+
+        private OutlineTask(GrainGeometrySnapshot[] snapshots, GrainPathBuffer[] outlines, int from, int to) {
+            this.snapshots = snapshots;
+            this.outlines = outlines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Void call() {
+            GrainGeometry.ArcLineSink arcLineSink = new GrainGeometry.ArcLineSink();
+            for (int i = from; i < to; i++) {
+                int outline = i % GrainGeometry.OUTLINE_COUNT;
+                GrainPathBuffer buffer = new GrainPathBuffer();
+                snapshots[i / GrainGeometry.OUTLINE_COUNT].buildBandOutline(outline / 2, outline % 2,
+                        buffer, arcLineSink);
+                outlines[i] = buffer;
+            }
+            return null;
+        }
+    }
+}
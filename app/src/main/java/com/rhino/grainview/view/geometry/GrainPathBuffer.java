@@ -0,0 +1,218 @@
+package com.rhino.grainview.view.geometry;
+
+import java.util.Arrays;
+
+/**
+ * <p>A compact command buffer of grain outlines.</p>
+ * <p>Every command is stored as one opcode plus its float operands, so the buffer
+ * can be kept, copied and replayed without any platform graphics type.</p>
+ **/
+public class GrainPathBuffer implements GrainPathSink {
+
+    /**
+     * The opcode of move to, followed by x, y.
+     */
+    public static final byte OP_MOVE_TO = 0;
+    /**
+     * The opcode of line to, followed by x, y.
+     */
+    public static final byte OP_LINE_TO = 1;
+    /**
+     * The opcode of arc to, followed by left, top, right, bottom, startAngle, sweepAngle.
+     */
+    public static final byte OP_ARC_TO = 2;
+
+    /**
+     * The default capacity of opcodes.
+     */
+    private static final int DEFAULT_OP_CAPACITY = 64;
+    /**
+     * The default capacity of coordinates.
+     */
+    private static final int DEFAULT_COORD_CAPACITY = 256;
+
+    /**
+     * The opcodes.
+     */
+    private byte[] mOps;
+    /**
+     * The count of opcodes.
+     */
+    private int mOpCount;
+    /**
+     * The operands of all opcodes.
+     */
+    private float[] mCoords;
+    /**
+     * The count of operands.
+     */
+    private int mCoordCount;
+
+    public GrainPathBuffer() {
+        this(DEFAULT_OP_CAPACITY, DEFAULT_COORD_CAPACITY);
+    }
+
+    public GrainPathBuffer(int opCapacity, int coordCapacity) {
+        this.mOps = new byte[Math.max(1, opCapacity)];
+        this.mCoords = new float[Math.max(6, coordCapacity)];
+    }
+
+    /**
+     * Return the count of operands used by the opcode.
+     *
+     * @param op the opcode
+     * @return the count of operands
+     */
+    public static int getOperandCount(byte op) {
+        return OP_ARC_TO == op ? 6 : 2;
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        ensureCapacity(2);
+        mOps[mOpCount++] = OP_MOVE_TO;
+        mCoords[mCoordCount++] = x;
+        mCoords[mCoordCount++] = y;
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        ensureCapacity(2);
+        mOps[mOpCount++] = OP_LINE_TO;
+        mCoords[mCoordCount++] = x;
+        mCoords[mCoordCount++] = y;
+    }
+
+    @Override
+    public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+        ensureCapacity(6);
+        mOps[mOpCount++] = OP_ARC_TO;
+        mCoords[mCoordCount++] = left;
+        mCoords[mCoordCount++] = top;
+        mCoords[mCoordCount++] = right;
+        mCoords[mCoordCount++] = bottom;
+        mCoords[mCoordCount++] = startAngle;
+        mCoords[mCoordCount++] = sweepAngle;
+    }
+
+    /**
+     * Clear all commands, the capacity is kept.
+     */
+    public void reset() {
+        mOpCount = 0;
+        mCoordCount = 0;
+    }
+
+    /**
+     * Return whether there is no command.
+     *
+     * @return true empty, false not empty
+     */
+    public boolean isEmpty() {
+        return 0 == mOpCount;
+    }
+
+    /**
+     * Return the count of opcodes.
+     *
+     * @return the count of opcodes
+     */
+    public int getOpCount() {
+        return mOpCount;
+    }
+
+    /**
+     * Return the opcode at index.
+     *
+     * @param index the index of opcode
+     * @return the opcode
+     */
+    public byte getOp(int index) {
+        return mOps[index];
+    }
+
+    /**
+     * Return the count of operands.
+     *
+     * @return the count of operands
+     */
+    public int getCoordCount() {
+        return mCoordCount;
+    }
+
+    /**
+     * Return the operand at index.
+     *
+     * @param index the index of operand
+     * @return the operand
+     */
+    public float getCoord(int index) {
+        return mCoords[index];
+    }
+
+    /**
+     * Replay all commands into the sink.
+     *
+     * @param sink the GrainPathSink
+     */
+    public void replay(GrainPathSink sink) {
+        final byte[] ops = mOps;
+        final float[] c = mCoords;
+        int ci = 0;
+        for (int i = 0; i < mOpCount; i++) {
+            switch (ops[i]) {
+                case OP_MOVE_TO:
+                    sink.moveTo(c[ci], c[ci + 1]);
+                    ci += 2;
+                    break;
+                case OP_LINE_TO:
+                    sink.lineTo(c[ci], c[ci + 1]);
+                    ci += 2;
+                    break;
+                case OP_ARC_TO:
+                    sink.arcTo(c[ci], c[ci + 1], c[ci + 2], c[ci + 3], c[ci + 4], c[ci + 5]);
+                    ci += 6;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + ops[i]);
+            }
+        }
+    }
+
+    /**
+     * Append all commands of another buffer.
+     *
+     * @param other the GrainPathBuffer
+     */
+    public void append(GrainPathBuffer other) {
+        ensureCapacity(other.mOpCount, other.mCoordCount);
+        System.arraycopy(other.mOps, 0, mOps, mOpCount, other.mOpCount);
+        System.arraycopy(other.mCoords, 0, mCoords, mCoordCount, other.mCoordCount);
+        mOpCount += other.mOpCount;
+        mCoordCount += other.mCoordCount;
+    }
+
+    /**
+     * Return a trimmed copy of this buffer.
+     *
+     * @return GrainPathBuffer
+     */
+    public GrainPathBuffer copy() {
+        GrainPathBuffer copy = new GrainPathBuffer(mOpCount, mCoordCount);
+        copy.append(this);
+        return copy;
+    }
+
+    private void ensureCapacity(int coordCount) {
+        ensureCapacity(1, coordCount);
+    }
+
+    private void ensureCapacity(int opCount, int coordCount) {
+        if (mOpCount + opCount > mOps.length) {
+            mOps = Arrays.copyOf(mOps, Math.max(mOps.length * 2, mOpCount + opCount));
+        }
+        if (mCoordCount + coordCount > mCoords.length) {
+            mCoords = Arrays.copyOf(mCoords, Math.max(mCoords.length * 2, mCoordCount + coordCount));
+        }
+    }
+}
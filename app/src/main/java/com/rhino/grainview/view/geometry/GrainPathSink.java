@@ -0,0 +1,37 @@
+package com.rhino.grainview.view.geometry;
+
+/**
+ * <p>The receiver of grain outline commands.</p>
+ * <p>The coordinates and angles follow the conventions of {@code android.graphics.Path}:
+ * y grows downward and arc angles are measured clockwise in degrees.</p>
+ **/
+public interface GrainPathSink {
+
+    /**
+     * Start a new contour at the point.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    void moveTo(float x, float y);
+
+    /**
+     * Add a line from the last point to the point.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     */
+    void lineTo(float x, float y);
+
+    /**
+     * Add an arc of the oval, connected to the last point with a line.
+     *
+     * @param left       the left of the oval bounds
+     * @param top        the top of the oval bounds
+     * @param right      the right of the oval bounds
+     * @param bottom     the bottom of the oval bounds
+     * @param startAngle the start angle (degrees)
+     * @param sweepAngle the sweep angle (degrees)
+     */
+    void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle);
+}
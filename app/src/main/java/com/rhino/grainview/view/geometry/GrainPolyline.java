@@ -0,0 +1,295 @@
+package com.rhino.grainview.view.geometry;
+
+import java.util.Arrays;
+
+/**
+ * <p>Grain outlines flattened into polylines, stored as one compact float array of points.</p>
+ * <p>Arcs are split into as few segments as keep every chord within the tolerance of the arc,
+ * so the tessellation is done once when built instead of every time the outline is rasterized
+ * or clipped. The polylines can be replayed into a Path, exported as segments for drawLines,
+ * and hit tested with the nonzero winding rule.</p>
+ **/
+public class GrainPolyline implements GrainPathSink {
+
+    /**
+     * The default max distance of chords from arcs.(px)
+     */
+    public static final float DEFAULT_TOLERANCE = 0.25f;
+
+    /**
+     * The max sweep of one segment, so a tiny arc still keeps its shape.(degree)
+     */
+    private static final float MAX_SEGMENT_SWEEP = 90f;
+
+    /**
+     * The x, y of all points.
+     */
+    private float[] mPoints;
+    /**
+     * The count of points.
+     */
+    private int mPointCount;
+    /**
+     * The index of first point of every contour.
+     */
+    private int[] mContourStarts;
+    /**
+     * The count of contours.
+     */
+    private int mContourCount;
+    /**
+     * The max distance of chords from arcs.(px)
+     */
+    private float mTolerance;
+
+    public GrainPolyline() {
+        this(DEFAULT_TOLERANCE);
+    }
+
+    public GrainPolyline(float tolerance) {
+        this.mPoints = new float[256];
+        this.mContourStarts = new int[16];
+        setTolerance(tolerance);
+    }
+
+    /**
+     * Return the count of segments flattening the arc within the tolerance.
+     *
+     * @param radius     the larger radius of arc
+     * @param sweepAngle the sweep angle of arc.(degree)
+     * @param tolerance  the max distance of chords from the arc
+     * @return the count of segments, at least 1
+     */
+    public static int getSegmentCount(float radius, float sweepAngle, float tolerance) {
+        float sweep = Math.abs(sweepAngle);
+        double step = MAX_SEGMENT_SWEEP;
+        if (tolerance < radius) {
+            // a chord of angle a is away from the arc by r * (1 - cos(a / 2))
+            step = Math.min(step, Math.toDegrees(2 * Math.acos(1 - tolerance / radius)));
+        }
+        return Math.max(1, (int) Math.ceil(sweep / step - 1e-4));
+    }
+
+    /**
+     * Write the arc as lines into the sink, from its start point to its end point.
+     *
+     * @param sink      the GrainPathSink to write
+     * @param tolerance the max distance of chords from the arc
+     */
+    public static void flattenArc(float left, float top, float right, float bottom,
+            float startAngle, float sweepAngle, float tolerance, GrainPathSink sink) {
+        float cx = (left + right) / 2;
+        float cy = (top + bottom) / 2;
+        float rx = (right - left) / 2;
+        float ry = (bottom - top) / 2;
+        int segments = getSegmentCount(Math.max(Math.abs(rx), Math.abs(ry)), sweepAngle, tolerance);
+        for (int i = 0; i <= segments; i++) {
+            double angle = Math.toRadians(startAngle + sweepAngle * i / segments);
+            sink.lineTo(cx + rx * (float) Math.cos(angle), cy + ry * (float) Math.sin(angle));
+        }
+    }
+
+    /**
+     * Set the max distance of chords from arcs, used by the arcs written after.
+     *
+     * @param tolerance the tolerance, must be positive.(px)
+     */
+    public void setTolerance(float tolerance) {
+        if (!(0 < tolerance)) {
+            throw new IllegalArgumentException("tolerance <= 0");
+        }
+        this.mTolerance = tolerance;
+    }
+
+    /**
+     * Return the max distance of chords from arcs.
+     *
+     * @return the tolerance.(px)
+     */
+    public float getTolerance() {
+        return mTolerance;
+    }
+
+    /**
+     * Clear all points, the arrays are kept.
+     */
+    public void reset() {
+        mPointCount = 0;
+        mContourCount = 0;
+    }
+
+    /**
+     * Return the count of points.
+     *
+     * @return the count of points
+     */
+    public int getPointCount() {
+        return mPointCount;
+    }
+
+    /**
+     * Return the x, y of all points, only the first 2 * {@link #getPointCount()} are valid.
+     *
+     * @return the array of points, must not be modified
+     */
+    public float[] getPoints() {
+        return mPoints;
+    }
+
+    /**
+     * Return the count of contours.
+     *
+     * @return the count of contours
+     */
+    public int getContourCount() {
+        return mContourCount;
+    }
+
+    /**
+     * Return the index of first point of the contour.
+     *
+     * @param contour the contour
+     * @return the index of point
+     */
+    public int getContourStart(int contour) {
+        return mContourStarts[contour];
+    }
+
+    /**
+     * Return the index after last point of the contour.
+     *
+     * @param contour the contour
+     * @return the index of point
+     */
+    public int getContourEnd(int contour) {
+        return contour + 1 < mContourCount ? mContourStarts[contour + 1] : mPointCount;
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        if (mContourCount == mContourStarts.length) {
+            mContourStarts = Arrays.copyOf(mContourStarts, mContourCount * 2);
+        }
+        mContourStarts[mContourCount++] = mPointCount;
+        addPoint(x, y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        if (0 == mContourCount) {
+            moveTo(0, 0);
+        }
+        addPoint(x, y);
+    }
+
+    @Override
+    public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+        flattenArc(left, top, right, bottom, startAngle, sweepAngle, mTolerance, this);
+    }
+
+    private void addPoint(float x, float y) {
+        if (mPointCount * 2 + 2 > mPoints.length) {
+            mPoints = Arrays.copyOf(mPoints, mPoints.length * 2);
+        }
+        mPoints[mPointCount * 2] = x;
+        mPoints[mPointCount * 2 + 1] = y;
+        mPointCount++;
+    }
+
+    /**
+     * Replay the polylines into the sink, only moveTo and lineTo are written.
+     *
+     * @param sink the GrainPathSink
+     */
+    public void replay(GrainPathSink sink) {
+        for (int contour = 0; contour < mContourCount; contour++) {
+            int start = mContourStarts[contour];
+            int end = getContourEnd(contour);
+            sink.moveTo(mPoints[start * 2], mPoints[start * 2 + 1]);
+            for (int i = start + 1; i < end; i++) {
+                sink.lineTo(mPoints[i * 2], mPoints[i * 2 + 1]);
+            }
+        }
+    }
+
+    /**
+     * Return the count of segments written by {@link #getLines(float[])}, each contour is closed.
+     *
+     * @return the count of segments
+     */
+    public int getLineCount() {
+        int count = 0;
+        for (int contour = 0; contour < mContourCount; contour++) {
+            int points = getContourEnd(contour) - mContourStarts[contour];
+            if (1 < points) {
+                count += points;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write every segment as x0, y0, x1, y1 for Canvas.drawLines, each contour is closed.
+     *
+     * @param out the reusable array, null or too short to allocate a new one
+     * @return the array, the first 4 * {@link #getLineCount()} are valid
+     */
+    public float[] getLines(float[] out) {
+        int size = getLineCount() * 4;
+        if (null == out || out.length < size) {
+            out = new float[size];
+        }
+        int index = 0;
+        for (int contour = 0; contour < mContourCount; contour++) {
+            int start = mContourStarts[contour];
+            int end = getContourEnd(contour);
+            if (2 > end - start) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                int next = i + 1 < end ? i + 1 : start;
+                out[index++] = mPoints[i * 2];
+                out[index++] = mPoints[i * 2 + 1];
+                out[index++] = mPoints[next * 2];
+                out[index++] = mPoints[next * 2 + 1];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Return whether the point is inside the polylines by the nonzero winding rule, each
+     * contour is closed, the same as filling the Path.
+     *
+     * @param x the x
+     * @param y the y
+     * @return true inside, false outside
+     */
+    public boolean contains(float x, float y) {
+        int winding = 0;
+        float[] p = mPoints;
+        for (int contour = 0; contour < mContourCount; contour++) {
+            int start = mContourStarts[contour];
+            int end = getContourEnd(contour);
+            for (int i = start; i < end; i++) {
+                int next = i + 1 < end ? i + 1 : start;
+                float x0 = p[i * 2];
+                float y0 = p[i * 2 + 1];
+                float x1 = p[next * 2];
+                float y1 = p[next * 2 + 1];
+                if (y0 <= y) {
+                    if (y1 > y && isLeft(x0, y0, x1, y1, x, y) > 0) {
+                        winding++;
+                    }
+                } else if (y1 <= y && isLeft(x0, y0, x1, y1, x, y) < 0) {
+                    winding--;
+                }
+            }
+        }
+        return 0 != winding;
+    }
+
+    private static float isLeft(float x0, float y0, float x1, float y1, float x, float y) {
+        return (x1 - x0) * (y - y0) - (x - x0) * (y1 - y0);
+    }
+}
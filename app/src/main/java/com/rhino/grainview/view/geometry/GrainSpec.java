@@ -0,0 +1,320 @@
+package com.rhino.grainview.view.geometry;
+
+import java.util.Arrays;
+
+/**
+ * <p>The tunable parameters of grain geometry.</p>
+ * <p>Ratios are relative to the size of view, so one spec fits every size. Setting a spec on
+ * {@link GrainGeometry} derives again only the measured values it changed.</p>
+ **/
+public class GrainSpec {
+
+    /**
+     * The count of peaks.
+     */
+    public static final int PEAK_COUNT = 4;
+    /**
+     * The max count of bands on each side of center gap.
+     */
+    public static final int MAX_BANDS_PER_SIDE = 3;
+
+    /**
+     * The default height ratios of peaks for height.((55-12)/300, (102-12)/300, (122-12)/300, (45-12)/300)
+     **/
+    private static final float[] DEFAULT_PEAK_HEIGHT_RATIOS_FOR_HEIGHT = new float[]{0.1433f, 0.3f, 0.3667f, 0.11f};
+    /**
+     * The default height ratio of center bolt for height.((93-12)/300)
+     **/
+    private static final float DEFAULT_CENTER_BOLT_HEIGHT_RATIO_FOR_HEIGHT = 0.27f;
+    /**
+     * The default angle A left center flag.(degree)
+     */
+    private static final float DEFAULT_ANGLE_A_LEFT_CENTER_FLAG = 48.5f;
+    /**
+     * The default angle B right center flag.(degree)
+     */
+    private static final float DEFAULT_ANGLE_B_RIGHT_CENTER_FLAG = 78f;
+    /**
+     * The default ratio for left line and right line of center flag.(48/65)
+     */
+    private static final float DEFAULT_RATIO_LEFT_LINE_AND_RIGHT_LINE_OF_CENTER_FLAG = 0.7385f;
+    /**
+     * The default gap ratio for radius.(1/3.25)
+     **/
+    private static final float DEFAULT_GRAIN_GAP_RATIO_FOR_RADIUS = 0.3077f;
+    /**
+     * The default center gap ratio for radius.(1/5)
+     **/
+    private static final float DEFAULT_CENTER_GAP_RATIO_FOR_RADIUS = 0.2f;
+
+    /**
+     * The height ratios of peaks for height.
+     */
+    private final float[] mPeakHeightRatios = DEFAULT_PEAK_HEIGHT_RATIOS_FOR_HEIGHT.clone();
+    /**
+     * The height ratio of center bolt for height.
+     */
+    private float mBoltHeightRatio = DEFAULT_CENTER_BOLT_HEIGHT_RATIO_FOR_HEIGHT;
+    /**
+     * The angle A left center flag.(degree)
+     */
+    private float mBoltAngleLeft = DEFAULT_ANGLE_A_LEFT_CENTER_FLAG;
+    /**
+     * The angle B right center flag.(degree)
+     */
+    private float mBoltAngleRight = DEFAULT_ANGLE_B_RIGHT_CENTER_FLAG;
+    /**
+     * The ratio for left line and right line of center flag.
+     */
+    private float mBoltLineRatio = DEFAULT_RATIO_LEFT_LINE_AND_RIGHT_LINE_OF_CENTER_FLAG;
+    /**
+     * The gap ratio for radius.
+     */
+    private float mGapRatio = DEFAULT_GRAIN_GAP_RATIO_FOR_RADIUS;
+    /**
+     * The center gap ratio for radius.
+     */
+    private float mCenterGapRatio = DEFAULT_CENTER_GAP_RATIO_FOR_RADIUS;
+    /**
+     * The count of bands on each side of center gap.
+     */
+    private int mBandsPerSide = MAX_BANDS_PER_SIDE;
+
+    public GrainSpec() {
+    }
+
+    public GrainSpec(GrainSpec spec) {
+        set(spec);
+    }
+
+    /**
+     * Copy all parameters of the spec.
+     *
+     * @param spec the GrainSpec
+     * @return this
+     */
+    public GrainSpec set(GrainSpec spec) {
+        System.arraycopy(spec.mPeakHeightRatios, 0, mPeakHeightRatios, 0, PEAK_COUNT);
+        this.mBoltHeightRatio = spec.mBoltHeightRatio;
+        this.mBoltAngleLeft = spec.mBoltAngleLeft;
+        this.mBoltAngleRight = spec.mBoltAngleRight;
+        this.mBoltLineRatio = spec.mBoltLineRatio;
+        this.mGapRatio = spec.mGapRatio;
+        this.mCenterGapRatio = spec.mCenterGapRatio;
+        this.mBandsPerSide = spec.mBandsPerSide;
+        return this;
+    }
+
+    /**
+     * Return whether all parameters are the defaults.
+     *
+     * @return true default, false tuned
+     */
+    public boolean isDefault() {
+        return equals(new GrainSpec());
+    }
+
+    /**
+     * Set the height ratio of peak for height.
+     *
+     * @param peak  the peak, 0 ... {@link #PEAK_COUNT} - 1 from left
+     * @param ratio the ratio, 0 ... 0.5
+     * @return this
+     */
+    public GrainSpec setPeakHeightRatio(int peak, float ratio) {
+        checkRange(ratio, 0, 0.5f, "peak height ratio");
+        mPeakHeightRatios[peak] = ratio;
+        return this;
+    }
+
+    /**
+     * Return the height ratio of peak for height.
+     *
+     * @param peak the peak, 0 ... {@link #PEAK_COUNT} - 1 from left
+     * @return the ratio
+     */
+    public float getPeakHeightRatio(int peak) {
+        return mPeakHeightRatios[peak];
+    }
+
+    /**
+     * Set the height ratio of center bolt for height.
+     *
+     * @param ratio the ratio, 0 ... 0.5
+     * @return this
+     */
+    public GrainSpec setBoltHeightRatio(float ratio) {
+        checkRange(ratio, 0, 0.5f, "bolt height ratio");
+        this.mBoltHeightRatio = ratio;
+        return this;
+    }
+
+    /**
+     * Return the height ratio of center bolt for height.
+     *
+     * @return the ratio
+     */
+    public float getBoltHeightRatio() {
+        return mBoltHeightRatio;
+    }
+
+    /**
+     * Set the angles of center bolt, the left one must be less than the right one.
+     *
+     * @param left  the angle A left center flag.(degree)
+     * @param right the angle B right center flag.(degree)
+     * @return this
+     */
+    public GrainSpec setBoltAngles(float left, float right) {
+        checkRange(left, 1, 89, "bolt left angle");
+        checkRange(right, 1, 179, "bolt right angle");
+        if (left >= right) {
+            throw new IllegalArgumentException("bolt left angle >= right angle");
+        }
+        this.mBoltAngleLeft = left;
+        this.mBoltAngleRight = right;
+        return this;
+    }
+
+    /**
+     * Return the angle A left center flag.
+     *
+     * @return the angle.(degree)
+     */
+    public float getBoltAngleLeft() {
+        return mBoltAngleLeft;
+    }
+
+    /**
+     * Return the angle B right center flag.
+     *
+     * @return the angle.(degree)
+     */
+    public float getBoltAngleRight() {
+        return mBoltAngleRight;
+    }
+
+    /**
+     * Set the ratio for left line and right line of center flag.
+     *
+     * @param ratio the ratio, positive
+     * @return this
+     */
+    public GrainSpec setBoltLineRatio(float ratio) {
+        checkRange(ratio, 0.01f, 100, "bolt line ratio");
+        this.mBoltLineRatio = ratio;
+        return this;
+    }
+
+    /**
+     * Return the ratio for left line and right line of center flag.
+     *
+     * @return the ratio
+     */
+    public float getBoltLineRatio() {
+        return mBoltLineRatio;
+    }
+
+    /**
+     * Set the gap ratio of bands for the radius of peak.
+     *
+     * @param ratio the ratio, 0 ... 0.33, all gaps must stay inside the peaks
+     * @return this
+     */
+    public GrainSpec setGapRatio(float ratio) {
+        checkRange(ratio, 0, 0.33f, "gap ratio");
+        this.mGapRatio = ratio;
+        return this;
+    }
+
+    /**
+     * Return the gap ratio of bands for the radius of peak.
+     *
+     * @return the ratio
+     */
+    public float getGapRatio() {
+        return mGapRatio;
+    }
+
+    /**
+     * Set the center gap ratio for the radius of peak.
+     *
+     * @param ratio the ratio, 0 ... 1
+     * @return this
+     */
+    public GrainSpec setCenterGapRatio(float ratio) {
+        checkRange(ratio, 0, 1, "center gap ratio");
+        this.mCenterGapRatio = ratio;
+        return this;
+    }
+
+    /**
+     * Return the center gap ratio for the radius of peak.
+     *
+     * @return the ratio
+     */
+    public float getCenterGapRatio() {
+        return mCenterGapRatio;
+    }
+
+    /**
+     * Set the count of bands on each side of center gap.
+     *
+     * @param count the count, 1 ... {@link #MAX_BANDS_PER_SIDE}
+     * @return this
+     */
+    public GrainSpec setBandsPerSide(int count) {
+        if (1 > count || MAX_BANDS_PER_SIDE < count) {
+            throw new IllegalArgumentException("bands per side out of 1 ... " + MAX_BANDS_PER_SIDE);
+        }
+        this.mBandsPerSide = count;
+        return this;
+    }
+
+    /**
+     * Return the count of bands on each side of center gap.
+     *
+     * @return the count
+     */
+    public int getBandsPerSide() {
+        return mBandsPerSide;
+    }
+
+    private static void checkRange(float value, float min, float max, String name) {
+        if (!(min <= value && value <= max)) {
+            throw new IllegalArgumentException(name + " out of " + min + " ... " + max);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GrainSpec)) {
+            return false;
+        }
+        GrainSpec spec = (GrainSpec) o;
+        return Arrays.equals(mPeakHeightRatios, spec.mPeakHeightRatios)
+                && Float.compare(mBoltHeightRatio, spec.mBoltHeightRatio) == 0
+                && Float.compare(mBoltAngleLeft, spec.mBoltAngleLeft) == 0
+                && Float.compare(mBoltAngleRight, spec.mBoltAngleRight) == 0
+                && Float.compare(mBoltLineRatio, spec.mBoltLineRatio) == 0
+                && Float.compare(mGapRatio, spec.mGapRatio) == 0
+                && Float.compare(mCenterGapRatio, spec.mCenterGapRatio) == 0
+                && mBandsPerSide == spec.mBandsPerSide;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(mPeakHeightRatios);
+        result = 31 * result + Float.floatToIntBits(mBoltHeightRatio);
+        result = 31 * result + Float.floatToIntBits(mBoltAngleLeft);
+        result = 31 * result + Float.floatToIntBits(mBoltAngleRight);
+        result = 31 * result + Float.floatToIntBits(mBoltLineRatio);
+        result = 31 * result + Float.floatToIntBits(mGapRatio);
+        result = 31 * result + Float.floatToIntBits(mCenterGapRatio);
+        result = 31 * result + mBandsPerSide;
+        return result;
+    }
+}
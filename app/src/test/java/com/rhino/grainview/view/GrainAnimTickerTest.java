@@ -0,0 +1,99 @@
+package com.rhino.grainview.view;
+
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>The tests of {@link GrainAnimTicker}.</p>
+ * <p>The frame callbacks are posted with the delay of a frame and the main looper is advanced
+ * frame by frame, so every client must be ticked exactly once per frame.</p>
+ **/
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class GrainAnimTickerTest {
+
+    private static final int FRAME_INTERVAL_MILLIS = 16;
+    private static final int FRAME_COUNT = 10;
+
+    private final GrainAnimTicker mTicker = GrainAnimTicker.getInstance();
+    private final CountingClient mFirst = new CountingClient();
+    private final CountingClient mSecond = new CountingClient();
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_INTERVAL_MILLIS);
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        mTicker.unregister(mFirst);
+        mTicker.unregister(mSecond);
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void register_ticksOncePerFrame() {
+        mTicker.register(mFirst);
+        mTicker.register(mSecond);
+        runFrames(FRAME_COUNT);
+        assertEquals(FRAME_COUNT, mFirst.mTickCount);
+        assertEquals(FRAME_COUNT, mSecond.mTickCount);
+    }
+
+    @Test
+    public void registerWhileDispatching_ticksOncePerFrame() {
+        mFirst.mClientToRegister = mSecond;
+        mTicker.register(mFirst);
+        runFrames(FRAME_COUNT);
+        assertEquals(FRAME_COUNT, mFirst.mTickCount);
+        assertEquals(FRAME_COUNT - 1, mSecond.mTickCount);
+    }
+
+    @Test
+    public void unregisterAllWhileDispatching_stopsTicking() {
+        mFirst.mClientToUnregister = mFirst;
+        mTicker.register(mFirst);
+        runFrames(FRAME_COUNT);
+        assertEquals(1, mFirst.mTickCount);
+        assertEquals(0, mTicker.getClientCount());
+    }
+
+    private static void runFrames(int count) {
+        for (int i = 0; i < count; i++) {
+            ShadowLooper.idleMainLooper(FRAME_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The client counting its ticks, registering or unregistering a client on its first tick.
+     */
+    private class CountingClient implements GrainAnimTicker.Client {
+        private int mTickCount;
+        private GrainAnimTicker.Client mClientToRegister;
+        private GrainAnimTicker.Client mClientToUnregister;
+
+        @Override
+        public void onTick(long frameTimeNanos) {
+            mTickCount++;
+            if (1 == mTickCount && null != mClientToRegister) {
+                mTicker.register(mClientToRegister);
+            }
+            if (1 == mTickCount && null != mClientToUnregister) {
+                mTicker.unregister(mClientToUnregister);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * <p>The tests of the Paths of {@link GrainDrawable}.</p>
+ * <p>The drawables of one state with different bounds must each keep the Paths of their own
+ * bounds, drawing them in turn must not take the Paths from the cache again.</p>
+ **/
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class GrainDrawableTest {
+
+    private static final int DRAW_COUNT = 10;
+
+    private final Canvas mCanvas = new Canvas(Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888));
+
+    @Before
+    public void setUp() {
+        GrainGeometryCache.getInstance().clear();
+    }
+
+    @Test
+    public void drawablesOfOneState_keepPathSetOfOwnBounds() {
+        GrainDrawable large = new GrainDrawable(RuntimeEnvironment.application);
+        GrainDrawable small = (GrainDrawable) large.getConstantState().newDrawable();
+        large.setBounds(0, 0, 360, 300);
+        small.setBounds(0, 0, 120, 100);
+
+        GrainGeometryCache cache = GrainGeometryCache.getInstance();
+        int lookupCount = cache.getHitCount() + cache.getMissCount();
+        for (int i = 0; i < DRAW_COUNT; i++) {
+            large.draw(mCanvas);
+            small.draw(mCanvas);
+        }
+        assertEquals("cache lookups while drawing", lookupCount, cache.getHitCount() + cache.getMissCount());
+        assertNotSame(large.getPathSet(), small.getPathSet());
+        assertEquals(360, large.getPathSet().getWidth());
+        assertEquals(120, small.getPathSet().getWidth());
+    }
+
+    @Test
+    public void mutatedDrawable_keepsPathSetOfOwnBounds() {
+        GrainDrawable large = new GrainDrawable(RuntimeEnvironment.application);
+        GrainDrawable small = (GrainDrawable) large.getConstantState().newDrawable().mutate();
+        large.setBounds(0, 0, 360, 300);
+        small.setBounds(0, 0, 120, 100);
+        small.setGrainColor(0xFFFFFFFF);
+
+        large.draw(mCanvas);
+        small.draw(mCanvas);
+        assertEquals(360, large.getPathSet().getWidth());
+        assertEquals(120, small.getPathSet().getWidth());
+    }
+}
@@ -0,0 +1,87 @@
+package com.rhino.grainview.view;
+
+
+import android.view.View;
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainPolyline;
+import com.rhino.grainview.view.geometry.GrainSpec;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * <p>The tests of animating the peaks of {@link GrainView} live, from
+ * {@link GrainView#setPeakHeightRatios(float, float, float, float)} down to the own
+ * {@link GrainPathSet}, the work done on the UI thread every frame.</p>
+ * <p>After a run of frames, the own set must be rebuilt in place and its flattened bands must
+ * hold the same points as a set measured from scratch with the same heights. The Paths the
+ * set writes into are checked by {@code GrainPathSetRebuildTest} of the benchmark module, with
+ * stand-ins which rewind like the native Path.</p>
+ **/
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class GrainViewLivePeaksTest {
+
+    private static final int WIDTH = 360;
+    private static final float FLATTENING_TOLERANCE = GrainPolyline.DEFAULT_TOLERANCE;
+
+    @Test
+    public void livePeaks_equalsFreshBuild() {
+        GrainView view = newGrainView(FLATTENING_TOLERANCE);
+        GrainPathSet pathSet = view.getPathSet();
+        runFrames(view, 0, 37);
+        assertSame("the own set is rebuilt in place", pathSet, view.getPathSet());
+
+        GrainHelper helper = new GrainHelper();
+        helper.setSpec(view.getSpec());
+        helper.setArcFlatteningTolerance(FLATTENING_TOLERANCE);
+        helper.measure(view.getMeasuredWidth(), view.getMeasuredHeight(),
+                RuntimeEnvironment.application.getResources().getDisplayMetrics().density);
+        GrainPathSet expected = new GrainPathSet().build(helper);
+
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            GrainPolyline expectedPolyline = expected.getBandPolyline(band);
+            GrainPolyline actualPolyline = pathSet.getBandPolyline(band);
+            assertEquals(expectedPolyline.getPointCount(), actualPolyline.getPointCount());
+            assertArrayEquals(toArray(expectedPolyline), toArray(actualPolyline), 1e-3f);
+        }
+    }
+
+    private static GrainView newGrainView(float flatteningTolerance) {
+        GrainView view = new GrainView(RuntimeEnvironment.application);
+        view.setLivePeaksEnabled(true);
+        view.setArcFlatteningTolerance(flatteningTolerance);
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        return view;
+    }
+
+    /**
+     * Drive the peaks by a meter like signal, as one frame each.
+     */
+    private static void runFrames(GrainView view, int firstFrame, int count) {
+        float[] ratios = new float[GrainSpec.PEAK_COUNT];
+        for (int frame = firstFrame; frame < firstFrame + count; frame++) {
+            for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+                float level = (float) Math.abs(Math.sin(frame * 0.05 + peak * 0.9));
+                ratios[peak] = 0.05f + 0.4f * level;
+            }
+            view.setPeakHeightRatios(ratios[0], ratios[1], ratios[2], ratios[3]);
+        }
+    }
+
+    private static float[] toArray(GrainPolyline polyline) {
+        float[] points = new float[2 * polyline.getPointCount()];
+        System.arraycopy(polyline.getPoints(), 0, points, 0, points.length);
+        return points;
+    }
+}
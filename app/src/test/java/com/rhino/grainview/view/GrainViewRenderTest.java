@@ -0,0 +1,174 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+
+import com.rhino.grainview.view.geometry.GoldenImage;
+import com.rhino.grainview.view.shadows.ShadowJava2DBitmap;
+import com.rhino.grainview.view.shadows.ShadowJava2DBitmapShader;
+import com.rhino.grainview.view.shadows.ShadowJava2DCanvas;
+import com.rhino.grainview.view.shadows.ShadowJava2DLinearGradient;
+import com.rhino.grainview.view.shadows.ShadowJava2DPaint;
+import com.rhino.grainview.view.shadows.ShadowJava2DPath;
+import com.rhino.grainview.view.shadows.ShadowJava2DPicture;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadow.api.Shadow;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>The headless render tests of {@link GrainView}.</p>
+ * <p>The view is drawn into a software Canvas under Robolectric at several sizes and flow
+ * light phases, and the Java2D shadows in {@code shadows} rasterize the draw calls of onDraw,
+ * so the pixels are compared with golden images in test resources.</p>
+ * <p>The plain mode is drawn as the golden image, and every other mode has to draw the same
+ * pixels: the static layer Bitmap, the static layer Picture, the flow light mask and the
+ * uncached geometry. The flow lights added are composed into the strip, drawn clipped, through
+ * the mask and over the static layer, and compared with their own golden image.</p>
+ * <p>A missing golden image is written to {@code build/reports/grain-render} to be checked
+ * and copied, the same as a differing one.</p>
+ **/
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 26, shadows = {ShadowJava2DCanvas.class, ShadowJava2DPath.class, ShadowJava2DPaint.class,
+        ShadowJava2DBitmap.class, ShadowJava2DLinearGradient.class, ShadowJava2DBitmapShader.class,
+        ShadowJava2DPicture.class})
+public class GrainViewRenderTest {
+
+    private static final int[] WIDTHS = new int[]{120, 360, 1080};
+    private static final float[] PHASES = new float[]{0.25f, 0.5f, 0.75f};
+
+    private final int mWidth;
+    private final float mPhase;
+
+    public GrainViewRenderTest(int width, float phase) {
+        this.mWidth = width;
+        this.mPhase = phase;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "width={0}, phase={1}")
+    public static Collection<Object[]> parameters() {
+        Collection<Object[]> parameters = new ArrayList<>();
+        for (int width : WIDTHS) {
+            for (float phase : PHASES) {
+                parameters.add(new Object[]{width, phase});
+            }
+        }
+        return parameters;
+    }
+
+    @Test
+    public void render_plain_matchesGolden() throws IOException {
+        assertMatchesGolden("view", "plain", newGrainView());
+    }
+
+    @Test
+    public void render_staticLayer_matchesGolden() throws IOException {
+        GrainView view = newGrainView();
+        view.setStaticLayerCacheEnabled(true);
+        assertMatchesGolden("view", "staticLayer", view);
+    }
+
+    @Test
+    public void render_staticLayerPicture_matchesGolden() throws IOException {
+        GrainView view = newGrainView();
+        view.setStaticLayerPictureEnabled(true);
+        assertMatchesGolden("view", "staticLayerPicture", view);
+    }
+
+    @Test
+    public void render_flowLightMask_matchesGolden() throws IOException {
+        GrainView view = newGrainView();
+        view.setFlowLightMaskEnabled(true);
+        assertMatchesGolden("view", "flowLightMask", view);
+    }
+
+    @Test
+    public void render_uncachedGeometry_matchesGolden() throws IOException {
+        GrainView view = newGrainView();
+        view.setGeometryCacheEnabled(false);
+        assertMatchesGolden("view", "uncachedGeometry", view);
+    }
+
+    @Test
+    public void render_flowLights_matchesGolden() throws IOException {
+        assertMatchesGolden("view_lights", "plain", newGrainViewWithLights());
+    }
+
+    @Test
+    public void render_flowLightsMask_matchesGolden() throws IOException {
+        GrainView view = newGrainViewWithLights();
+        view.setFlowLightMaskEnabled(true);
+        assertMatchesGolden("view_lights", "flowLightMask", view);
+    }
+
+    @Test
+    public void render_flowLightsStaticLayer_matchesGolden() throws IOException {
+        GrainView view = newGrainViewWithLights();
+        view.setStaticLayerCacheEnabled(true);
+        assertMatchesGolden("view_lights", "staticLayer", view);
+    }
+
+    private GrainView newGrainView() {
+        GrainView view = new GrainView(RuntimeEnvironment.application);
+        view.measure(View.MeasureSpec.makeMeasureSpec(mWidth, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        view.setFlowLightPhase(mPhase);
+        return view;
+    }
+
+    private GrainView newGrainViewWithLights() {
+        GrainView view = new GrainView(RuntimeEnvironment.application);
+        view.measure(View.MeasureSpec.makeMeasureSpec(mWidth, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        view.addFlowLight(new GrainFlowLight(100, mWidth / 3, 0xAAFFFFFF, GrainFlowLight.DIRECTION_LEFT_TO_RIGHT));
+        view.addFlowLight(new GrainFlowLight(100, mWidth / 5, 0x88FFE000, GrainFlowLight.DIRECTION_RIGHT_TO_LEFT));
+        view.setFlowLightPhase(mPhase);
+        return view;
+    }
+
+    /**
+     * Draw the view over the background, twice so the caches built by the first draw are
+     * drawn from too, and compare the pixels with the golden image. The View.draw of
+     * Robolectric only draws the background, so onDraw is called directly.
+     */
+    private void assertMatchesGolden(String prefix, String mode, GrainView view) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(view.getMeasuredWidth(), view.getMeasuredHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(GoldenImage.BACKGROUND_COLOR);
+        view.onDraw(canvas);
+        canvas.drawColor(GoldenImage.BACKGROUND_COLOR);
+        view.onDraw(canvas);
+        ShadowJava2DCanvas shadowCanvas = Shadow.extract(canvas);
+        BufferedImage actual = shadowCanvas.getImage();
+
+        String name = String.format(Locale.US, "%s_%d_%03d.png", prefix, mWidth, (int) (mPhase * 100));
+        BufferedImage expected = GoldenImage.load(name);
+        if (null == expected) {
+            File written = GoldenImage.write(name, actual);
+            assertNotNull("No golden image " + name + ", check and copy " + written, expected);
+        }
+        float diffRatio = GoldenImage.diffRatio(expected, actual);
+        if (diffRatio > GoldenImage.DEFAULT_MAX_DIFF_RATIO) {
+            GoldenImage.write(mode + "_" + name, actual);
+        }
+        assertTrue(mode + " " + name + " differs from golden by " + diffRatio,
+                diffRatio <= GoldenImage.DEFAULT_MAX_DIFF_RATIO);
+    }
+}
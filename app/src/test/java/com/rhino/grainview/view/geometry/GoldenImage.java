@@ -0,0 +1,209 @@
+package com.rhino.grainview.view.geometry;
+
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * <p>The golden image helper of render tests.</p>
+ * <p>The bands of a measured {@link GrainGeometry} are rasterized with Java2D, the same way on
+ * every JVM, so no android graphics are needed.</p>
+ * <p>Images are compared with a perceptual color distance in YIQ space, so anti aliasing
+ * noise below the threshold is ignored, and a small ratio of differing pixels is tolerated.</p>
+ **/
+public class GoldenImage {
+
+    /**
+     * The directory of golden images in test resources.
+     */
+    static final String GOLDEN_DIR = "golden/";
+    /**
+     * The directory the rendered images are written to, relative to the module.
+     */
+    static final File OUTPUT_DIR = new File("build/reports/grain-render");
+    /**
+     * The max YIQ distance of a pixel to be perceived as equal, 0 to 1.
+     */
+    static final float DEFAULT_PIXEL_THRESHOLD = 0.1f;
+    /**
+     * The max ratio of differing pixels.
+     */
+    public static final float DEFAULT_MAX_DIFF_RATIO = 0.005f;
+    /**
+     * The background color of rasterized images.
+     */
+    public static final int BACKGROUND_COLOR = 0xFF28AAE5;
+    /**
+     * The max YIQ distance of two colors.
+     */
+    private static final float MAX_YIQ_DELTA = 35215f;
+
+    private GoldenImage() {
+    }
+
+    /**
+     * Rasterize every band of the measured geometry in white over the background, the
+     * center line of grain in the middle of image the same as GrainView.
+     *
+     * @param geometry the measured GrainGeometry
+     * @return BufferedImage
+     */
+    static BufferedImage rasterize(GrainGeometry geometry) {
+        int width = geometry.getViewWidth();
+        int height = geometry.getViewHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(new Color(BACKGROUND_COLOR, true));
+            graphics.fillRect(0, 0, width, height);
+            graphics.translate(0, height / 2);
+            graphics.setColor(Color.WHITE);
+            for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                Path2D.Float path = new Path2D.Float();
+                geometry.buildBand(band, new Java2DSink(path));
+                graphics.fill(path);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Load the golden image from test resources.
+     *
+     * @param name the name of image
+     * @return BufferedImage, null when there is no golden image
+     */
+    public static BufferedImage load(String name) throws IOException {
+        InputStream in = GoldenImage.class.getClassLoader().getResourceAsStream(GOLDEN_DIR + name);
+        if (null == in) {
+            return null;
+        }
+        try {
+            return ImageIO.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write the rendered image into the output directory.
+     *
+     * @param name  the name of image
+     * @param image the BufferedImage
+     * @return the written File
+     */
+    public static File write(String name, BufferedImage image) throws IOException {
+        if (!OUTPUT_DIR.isDirectory() && !OUTPUT_DIR.mkdirs()) {
+            throw new IOException("Can not create " + OUTPUT_DIR);
+        }
+        File file = new File(OUTPUT_DIR, name);
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    /**
+     * Return the ratio of pixels perceived as different.
+     *
+     * @param expected the expected image
+     * @param actual   the actual image
+     * @return the ratio, 1 when the sizes differ
+     */
+    public static float diffRatio(BufferedImage expected, BufferedImage actual) {
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        if (width != actual.getWidth() || height != actual.getHeight()) {
+            return 1f;
+        }
+        int[] expectedPixels = expected.getRGB(0, 0, width, height, null, 0, width);
+        int[] actualPixels = actual.getRGB(0, 0, width, height, null, 0, width);
+        int diffCount = 0;
+        for (int i = 0; i < expectedPixels.length; i++) {
+            if (yiqDelta(expectedPixels[i], actualPixels[i]) > DEFAULT_PIXEL_THRESHOLD) {
+                diffCount++;
+            }
+        }
+        return (float) diffCount / expectedPixels.length;
+    }
+
+    /**
+     * Return the perceptual distance of two colors, blended over white.
+     *
+     * @param c1 the first color
+     * @param c2 the second color
+     * @return the distance, 0 to 1
+     */
+    static float yiqDelta(int c1, int c2) {
+        if (c1 == c2) {
+            return 0f;
+        }
+        float a1 = (c1 >>> 24) / 255f;
+        float a2 = (c2 >>> 24) / 255f;
+        float r1 = blend((c1 >> 16) & 0xFF, a1);
+        float g1 = blend((c1 >> 8) & 0xFF, a1);
+        float b1 = blend(c1 & 0xFF, a1);
+        float r2 = blend((c2 >> 16) & 0xFF, a2);
+        float g2 = blend((c2 >> 8) & 0xFF, a2);
+        float b2 = blend(c2 & 0xFF, a2);
+        float y = rgb2y(r1, g1, b1) - rgb2y(r2, g2, b2);
+        float i = rgb2i(r1, g1, b1) - rgb2i(r2, g2, b2);
+        float q = rgb2q(r1, g1, b1) - rgb2q(r2, g2, b2);
+        return (0.5053f * y * y + 0.299f * i * i + 0.1957f * q * q) / MAX_YIQ_DELTA;
+    }
+
+    private static float blend(int c, float a) {
+        return 255 + (c - 255) * a;
+    }
+
+    private static float rgb2y(float r, float g, float b) {
+        return r * 0.29889531f + g * 0.58662247f + b * 0.11448223f;
+    }
+
+    private static float rgb2i(float r, float g, float b) {
+        return r * 0.59597799f - g * 0.27417610f - b * 0.32180189f;
+    }
+
+    private static float rgb2q(float r, float g, float b) {
+        return r * 0.21147017f - g * 0.52261711f + b * 0.31114694f;
+    }
+
+    /**
+     * The sink which writes outlines into a Java2D path. Android arc angles grow clockwise
+     * on screen while Java2D arc angles grow counter clockwise, so the angles are negated.
+     */
+    private static class Java2DSink implements GrainPathSink {
+        private final Path2D.Float path;
+        private final Arc2D.Float arc = new Arc2D.Float(Arc2D.OPEN);
+
+        private Java2DSink(Path2D.Float path) {
+            this.path = path;
+        }
+
+        @Override
+        public void moveTo(float x, float y) {
+            path.moveTo(x, y);
+        }
+
+        @Override
+        public void lineTo(float x, float y) {
+            path.lineTo(x, y);
+        }
+
+        @Override
+        public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+            arc.setArc(left, top, right - left, bottom - top, -startAngle, -sweepAngle, Arc2D.OPEN);
+            path.append(arc, true);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.rhino.grainview.view.geometry;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>The golden image tests of the outlines GrainView draws.</p>
+ * <p>The bands are rasterized with Java2D at several sizes and peak animation phases, and
+ * compared with the reviewed golden images in {@code src/test/resources/golden}. A missing
+ * golden image fails the test, the rendered image is written to
+ * {@code build/reports/grain-render} to be checked and copied into the golden directory.</p>
+ **/
+@RunWith(Parameterized.class)
+public class GrainGeometryGoldenTest {
+
+    private static final int[] WIDTHS = new int[]{120, 360, 1080};
+    private static final float[] PHASES = new float[]{0.25f, 0.5f, 0.75f};
+    private static final float HEIGHT_RATIO_FOR_WIDTH = 0.8333F;
+    private static final float DENSITY = 2f;
+
+    private final int mWidth;
+    private final float mPhase;
+
+    public GrainGeometryGoldenTest(int width, float phase) {
+        this.mWidth = width;
+        this.mPhase = phase;
+    }
+
+    @Parameterized.Parameters(name = "width={0}, phase={1}")
+    public static Collection<Object[]> parameters() {
+        Collection<Object[]> parameters = new ArrayList<>();
+        for (int width : WIDTHS) {
+            for (float phase : PHASES) {
+                parameters.add(new Object[]{width, phase});
+            }
+        }
+        return parameters;
+    }
+
+    @Test
+    public void rasterize_matchesGolden() throws IOException {
+        GrainGeometry geometry = new GrainGeometry();
+        geometry.setPeakHeightRatios(peakHeightRatios(mPhase));
+        geometry.measure(mWidth, (int) (mWidth * HEIGHT_RATIO_FOR_WIDTH), DENSITY);
+        BufferedImage actual = GoldenImage.rasterize(geometry);
+
+        String name = String.format(Locale.US, "grain_%d_%03d.png", mWidth, (int) (mPhase * 100));
+        BufferedImage expected = GoldenImage.load(name);
+        if (null == expected) {
+            File written = GoldenImage.write(name, actual);
+            assertNotNull("No golden image " + name + ", check and copy " + written, expected);
+        }
+        float diffRatio = GoldenImage.diffRatio(expected, actual);
+        if (diffRatio > GoldenImage.DEFAULT_MAX_DIFF_RATIO) {
+            GoldenImage.write(name, actual);
+        }
+        assertTrue(name + " differs from golden by " + diffRatio, diffRatio <= GoldenImage.DEFAULT_MAX_DIFF_RATIO);
+    }
+
+    /**
+     * Return the heights of peaks at the phase of animation, every peak scaled from its
+     * default height.
+     */
+    private static float[] peakHeightRatios(float phase) {
+        GrainSpec spec = new GrainSpec();
+        float[] ratios = new float[GrainSpec.PEAK_COUNT];
+        for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+            ratios[peak] = Math.min(0.5f, spec.getPeakHeightRatio(peak) * (0.5f + phase));
+        }
+        return ratios;
+    }
+}
@@ -0,0 +1,107 @@
+package com.rhino.grainview.view.geometry;
+
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>The tests of animating the peaks of {@link GrainGeometry} on every frame.</p>
+ * <p>The band buffers are rebuilt in place for a run of frames, the bytes allocated by the
+ * thread are counted by the JVM and must be zero. The buffers must also equal the buffers of
+ * a geometry measured from scratch with the same heights.</p>
+ **/
+public class GrainPeakAnimationTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 900;
+    private static final float DENSITY = 3f;
+    private static final int WARMUP_FRAME_COUNT = 20000;
+    private static final int FRAME_COUNT = 600;
+
+    private GrainGeometry mGeometry;
+    private final GrainPathBuffer[] mBuffers = new GrainPathBuffer[GrainGeometry.BAND_COUNT];
+    private final float[] mRatios = new float[GrainSpec.PEAK_COUNT];
+
+    @Before
+    public void setUp() {
+        mGeometry = new GrainGeometry();
+        mGeometry.measure(WIDTH, HEIGHT, DENSITY);
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            mBuffers[band] = new GrainPathBuffer();
+        }
+        buildBands(mGeometry, mBuffers);
+    }
+
+    @Test
+    public void animatePeaks_allocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        // let the JIT compile the frame before counting
+        runFrames(0, WARMUP_FRAME_COUNT);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        runFrames(WARMUP_FRAME_COUNT, FRAME_COUNT);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+        assertEquals("bytes allocated in " + FRAME_COUNT + " frames", 0, allocated);
+    }
+
+    @Test
+    public void animatePeaks_equalsFullBuild() {
+        runFrames(0, 37);
+        GrainGeometry geometry = new GrainGeometry();
+        geometry.setSpec(mGeometry.getSpec());
+        geometry.measure(WIDTH, HEIGHT, DENSITY);
+        GrainPathBuffer[] expected = new GrainPathBuffer[GrainGeometry.BAND_COUNT];
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            expected[band] = new GrainPathBuffer();
+        }
+        buildBands(geometry, expected);
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            assertEquals(expected[band].getOpCount(), mBuffers[band].getOpCount());
+            assertArrayEquals(toArray(expected[band]), toArray(mBuffers[band]), 1e-3f);
+        }
+    }
+
+    /**
+     * Drive the peaks by a meter like signal and rebuild the buffers, as one frame each.
+     */
+    private void runFrames(int firstFrame, int count) {
+        for (int frame = firstFrame; frame < firstFrame + count; frame++) {
+            for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+                float level = (float) Math.abs(Math.sin(frame * 0.05 + peak * 0.9));
+                mRatios[peak] = 0.05f + 0.4f * level;
+            }
+            if (mGeometry.setPeakHeightRatios(mRatios)) {
+                buildBands(mGeometry, mBuffers);
+            }
+        }
+    }
+
+    private static void buildBands(GrainGeometry geometry, GrainPathBuffer[] buffers) {
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            buffers[band].reset();
+            geometry.buildBand(band, buffers[band]);
+        }
+    }
+
+    private static float[] toArray(GrainPathBuffer buffer) {
+        float[] coords = new float[buffer.getCoordCount()];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = buffer.getCoord(i);
+        }
+        return coords;
+    }
+}
@@ -0,0 +1,155 @@
+package com.rhino.grainview.view.geometry;
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>The tests of {@link GrainPolyline}.</p>
+ * <p>The chords of flattened arcs must stay within the tolerance of the arc, the nonzero
+ * winding rule must treat an outline wound the other way as a hole, and the lines must close
+ * each contour.</p>
+ **/
+public class GrainPolylineTest {
+
+    private static final float[] RADII = new float[]{1f, 12f, 150f, 1600f};
+    private static final float[] SWEEPS = new float[]{-270f, -45f, 7.5f, 90f, 180f, 360f};
+    private static final float[] TOLERANCES = new float[]{0.05f, 0.25f, 1f};
+
+    @Test
+    public void flattenArc_chordsWithinTolerance() {
+        GrainPolyline polyline = new GrainPolyline();
+        for (float radius : RADII) {
+            for (float sweep : SWEEPS) {
+                for (float tolerance : TOLERANCES) {
+                    float startAngle = 30f;
+                    polyline.reset();
+                    polyline.moveTo(radius * (float) Math.cos(Math.toRadians(startAngle)),
+                            radius * (float) Math.sin(Math.toRadians(startAngle)));
+                    GrainPolyline.flattenArc(-radius, -radius, radius, radius, startAngle, sweep, tolerance, polyline);
+
+                    int segments = GrainPolyline.getSegmentCount(radius, sweep, tolerance);
+                    // the start point is written again by flattenArc
+                    assertEquals(segments + 2, polyline.getPointCount());
+                    float[] points = polyline.getPoints();
+                    for (int i = 1; i < polyline.getPointCount() - 1; i++) {
+                        float mx = (points[i * 2] + points[i * 2 + 2]) / 2;
+                        float my = (points[i * 2 + 1] + points[i * 2 + 3]) / 2;
+                        float error = radius - (float) Math.hypot(mx, my);
+                        assertTrue("r=" + radius + " sweep=" + sweep + " tolerance=" + tolerance
+                                + " error=" + error, error <= tolerance + 1e-3f * Math.max(1, radius / 100));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getSegmentCount_fewerSegmentsExceedTolerance() {
+        for (float radius : RADII) {
+            for (float sweep : SWEEPS) {
+                for (float tolerance : TOLERANCES) {
+                    int segments = GrainPolyline.getSegmentCount(radius, sweep, tolerance);
+                    assertTrue(1 <= segments);
+                    double step = Math.toRadians(Math.abs(sweep) / (segments - 1));
+                    if (1 == segments || Math.abs(sweep) / (segments - 1) > 90) {
+                        // a single chord, or bounded by the max sweep of a segment
+                        continue;
+                    }
+                    double error = radius * (1 - Math.cos(step / 2));
+                    assertTrue("r=" + radius + " sweep=" + sweep + " tolerance=" + tolerance,
+                            error > tolerance);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void contains_oppositeWindingIsHole() {
+        GrainPolyline polyline = new GrainPolyline();
+        addRect(polyline, 0, 0, 10, 10, true);
+        addRect(polyline, 3, 3, 7, 7, false);
+
+        assertTrue(polyline.contains(1, 1));
+        assertTrue(polyline.contains(8.5f, 5));
+        assertFalse(polyline.contains(5, 5));
+        assertFalse(polyline.contains(11, 5));
+        assertFalse(polyline.contains(5, -1));
+    }
+
+    @Test
+    public void contains_sameWindingOverlaps() {
+        GrainPolyline polyline = new GrainPolyline();
+        addRect(polyline, 0, 0, 10, 10, true);
+        addRect(polyline, 3, 3, 7, 7, true);
+
+        assertTrue(polyline.contains(1, 1));
+        assertTrue(polyline.contains(5, 5));
+        assertFalse(polyline.contains(11, 5));
+    }
+
+    @Test
+    public void contains_bandOutline() {
+        // a band as outlined by the geometry: the outer arc one way, the inner arc back
+        GrainPolyline polyline = new GrainPolyline(0.01f);
+        polyline.moveTo(-10, 0);
+        polyline.arcTo(-10, -10, 10, 10, 180, 180);
+        polyline.lineTo(5, 0);
+        polyline.arcTo(-5, -5, 5, 5, 0, -180);
+
+        assertEquals(1, polyline.getContourCount());
+        assertTrue(polyline.contains(0, -7.5f));
+        assertTrue(polyline.contains(-6, -4));
+        // inside the bounds of band, but in the hollow of it
+        assertFalse(polyline.contains(0, -2));
+        assertFalse(polyline.contains(8.5f, -8.5f));
+        assertFalse(polyline.contains(0, -11));
+        assertFalse(polyline.contains(0, 2));
+    }
+
+    @Test
+    public void getLines_closesEachContour() {
+        GrainPolyline polyline = new GrainPolyline();
+        polyline.moveTo(0, 0);
+        polyline.lineTo(4, 0);
+        polyline.lineTo(0, 3);
+        addRect(polyline, 10, 10, 12, 12, true);
+        // a single point draws no line
+        polyline.moveTo(20, 20);
+
+        assertEquals(3 + 4, polyline.getLineCount());
+        float[] lines = polyline.getLines(null);
+        assertEquals(0, lines[2 * 4 + 2], 0);
+        assertEquals(0, lines[2 * 4 + 3], 0);
+        assertEquals(10, lines[6 * 4 + 2], 0);
+        assertEquals(10, lines[6 * 4 + 3], 0);
+        for (int line = 0; line + 1 < polyline.getLineCount(); line++) {
+            if (2 == line) {
+                continue;
+            }
+            // each line starts where the one before it ends
+            assertEquals(lines[line * 4 + 2], lines[line * 4 + 4], 0);
+            assertEquals(lines[line * 4 + 3], lines[line * 4 + 5], 0);
+        }
+
+        float[] reused = new float[64];
+        assertTrue(reused == polyline.getLines(reused));
+    }
+
+    private static void addRect(GrainPolyline polyline, float left, float top, float right, float bottom,
+            boolean clockwise) {
+        polyline.moveTo(left, top);
+        if (clockwise) {
+            polyline.lineTo(right, top);
+            polyline.lineTo(right, bottom);
+            polyline.lineTo(left, bottom);
+        } else {
+            polyline.lineTo(left, bottom);
+            polyline.lineTo(right, bottom);
+            polyline.lineTo(right, top);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.Bitmap;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowBitmap;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * <p>The shadow of Bitmap which keeps its pixels in a Java2D image, drawn into by
+ * {@link ShadowJava2DCanvas}. An ALPHA_8 Bitmap keeps all channels, only its alpha is used
+ * when drawn.</p>
+ **/
+@Implements(Bitmap.class)
+public class ShadowJava2DBitmap extends ShadowBitmap {
+
+    private BufferedImage mImage;
+
+    /**
+     * Return the pixels, created transparent on the first use.
+     *
+     * @return BufferedImage
+     */
+    public BufferedImage getImage() {
+        if (null == mImage) {
+            mImage = new BufferedImage(Math.max(1, getWidth()), Math.max(1, getHeight()), BufferedImage.TYPE_INT_ARGB);
+        }
+        return mImage;
+    }
+
+    @Override
+    @Implementation
+    public void eraseColor(int color) {
+        BufferedImage image = getImage();
+        int[] row = new int[image.getWidth()];
+        Arrays.fill(row, color);
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.setRGB(0, y, row.length, 1, row, 0, row.length);
+        }
+    }
+
+    @Override
+    @Implementation
+    public void setPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        getImage().setRGB(x, y, width, height, pixels, offset, stride);
+    }
+
+    @Override
+    @Implementation
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        getImage().getRGB(x, y, width, height, pixels, offset, stride);
+    }
+
+    @Override
+    @Implementation
+    public int getPixel(int x, int y) {
+        return getImage().getRGB(x, y);
+    }
+
+    @Override
+    @Implementation
+    public void setPixel(int x, int y, int color) {
+        getImage().setRGB(x, y, color);
+    }
+}
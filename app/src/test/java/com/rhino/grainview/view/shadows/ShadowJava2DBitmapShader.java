@@ -0,0 +1,112 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Shader;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadow.api.Shadow;
+
+import java.awt.Paint;
+import java.awt.PaintContext;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * <p>The shadow of BitmapShader which samples its Bitmap as a Java2D paint. Only
+ * {@link Shader.TileMode#CLAMP} is supported, the nearest pixel is sampled.</p>
+ **/
+@Implements(BitmapShader.class)
+public class ShadowJava2DBitmapShader {
+
+    private Bitmap mBitmap;
+
+    @Implementation
+    public void __constructor__(Bitmap bitmap, Shader.TileMode tileX, Shader.TileMode tileY) {
+        if (Shader.TileMode.CLAMP != tileX || Shader.TileMode.CLAMP != tileY) {
+            throw new UnsupportedOperationException("Only CLAMP is supported");
+        }
+        this.mBitmap = bitmap;
+    }
+
+    /**
+     * Return the Java2D paint sampling the Bitmap.
+     *
+     * @param localMatrix the local matrix of shader
+     * @return Paint
+     */
+    public Paint toJava2DPaint(AffineTransform localMatrix) {
+        ShadowJava2DBitmap shadowBitmap = Shadow.extract(mBitmap);
+        return new ClampedImagePaint(shadowBitmap.getImage(), localMatrix);
+    }
+
+    /**
+     * The paint sampling the nearest pixel of image, clamped to its edges.
+     */
+    private static class ClampedImagePaint implements Paint {
+        private final BufferedImage image;
+        private final AffineTransform localMatrix;
+
+        private ClampedImagePaint(BufferedImage image, AffineTransform localMatrix) {
+            this.image = image;
+            this.localMatrix = localMatrix;
+        }
+
+        @Override
+        public PaintContext createContext(ColorModel cm, Rectangle deviceBounds, Rectangle2D userBounds,
+                AffineTransform xform, RenderingHints hints) {
+            AffineTransform toDevice = new AffineTransform(xform);
+            toDevice.concatenate(localMatrix);
+            final AffineTransform toImage;
+            try {
+                toImage = toDevice.createInverse();
+            } catch (NoninvertibleTransformException e) {
+                throw new IllegalStateException(e);
+            }
+            return new PaintContext() {
+                @Override
+                public void dispose() {
+                }
+
+                @Override
+                public ColorModel getColorModel() {
+                    return ColorModel.getRGBdefault();
+                }
+
+                @Override
+                public Raster getRaster(int x, int y, int w, int h) {
+                    WritableRaster raster = getColorModel().createCompatibleWritableRaster(w, h);
+                    int[] pixels = new int[w * h];
+                    Point2D.Float point = new Point2D.Float();
+                    for (int j = 0; j < h; j++) {
+                        for (int i = 0; i < w; i++) {
+                            point.setLocation(x + i + 0.5f, y + j + 0.5f);
+                            toImage.transform(point, point);
+                            int sx = Math.max(0, Math.min(image.getWidth() - 1, (int) Math.floor(point.x)));
+                            int sy = Math.max(0, Math.min(image.getHeight() - 1, (int) Math.floor(point.y)));
+                            pixels[j * w + i] = image.getRGB(sx, sy);
+                        }
+                    }
+                    raster.setDataElements(0, 0, w, h, pixels);
+                    return raster;
+                }
+            };
+        }
+
+        @Override
+        public int getTransparency() {
+            return Transparency.TRANSLUCENT;
+        }
+    }
+}
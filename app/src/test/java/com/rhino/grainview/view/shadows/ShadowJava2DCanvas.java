@@ -0,0 +1,432 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadow.api.Shadow;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * <p>The shadow of Canvas which rasterizes the draw calls into the Java2D image of its
+ * Bitmap, see {@link ShadowJava2DBitmap}.</p>
+ * <p>The transform and clip are kept in device space and saved on a stack. A clipped draw
+ * is drawn into a layer first and masked by the anti aliased clip, the same as a clip of a
+ * software Canvas. Only what GrainView draws is supported: filled Paths and rects, Bitmaps,
+ * alpha masks colored by the Paint, Pictures, and colors, gradients and Bitmap shaders.</p>
+ **/
+@Implements(Canvas.class)
+public class ShadowJava2DCanvas {
+
+    private Bitmap mBitmap;
+    private AffineTransform mTransform = new AffineTransform();
+    /**
+     * The clip in device space, null when not clipped.
+     */
+    private Area mClip;
+    /**
+     * The anti aliased mask of clip, created when first drawn through.
+     */
+    private BufferedImage mClipMask;
+    private final Deque<State> mSavedStates = new ArrayDeque<>();
+
+    @Implementation
+    public void __constructor__() {
+    }
+
+    @Implementation
+    public void __constructor__(Bitmap bitmap) {
+        setBitmap(bitmap);
+    }
+
+    @Implementation
+    public void setBitmap(Bitmap bitmap) {
+        mBitmap = bitmap;
+        mTransform = new AffineTransform();
+        mClip = null;
+        mClipMask = null;
+        mSavedStates.clear();
+    }
+
+    @Implementation
+    public int getWidth() {
+        return null == mBitmap ? 0 : mBitmap.getWidth();
+    }
+
+    @Implementation
+    public int getHeight() {
+        return null == mBitmap ? 0 : mBitmap.getHeight();
+    }
+
+    @Implementation
+    public boolean isHardwareAccelerated() {
+        return false;
+    }
+
+    @Implementation
+    public int save() {
+        int count = getSaveCount();
+        mSavedStates.push(new State(mTransform, mClip, mClipMask));
+        return count;
+    }
+
+    @Implementation
+    public int save(int saveFlags) {
+        return save();
+    }
+
+    @Implementation
+    public void restore() {
+        if (mSavedStates.isEmpty()) {
+            throw new IllegalStateException("Underflow in restore");
+        }
+        State state = mSavedStates.pop();
+        mTransform = state.transform;
+        mClip = state.clip;
+        mClipMask = state.clipMask;
+    }
+
+    @Implementation
+    public void restoreToCount(int saveCount) {
+        while (getSaveCount() > saveCount) {
+            restore();
+        }
+    }
+
+    @Implementation
+    public int getSaveCount() {
+        return mSavedStates.size() + 1;
+    }
+
+    @Implementation
+    public void translate(float dx, float dy) {
+        mTransform = new AffineTransform(mTransform);
+        mTransform.translate(dx, dy);
+    }
+
+    @Implementation
+    public boolean clipPath(Path path) {
+        ShadowJava2DPath shadowPath = Shadow.extract(path);
+        return clip(shadowPath.getJava2DPath());
+    }
+
+    @Implementation
+    public boolean clipRect(RectF rect) {
+        return clip(toRectangle(rect.left, rect.top, rect.right, rect.bottom));
+    }
+
+    @Implementation
+    public boolean clipRect(Rect rect) {
+        return clip(toRectangle(rect.left, rect.top, rect.right, rect.bottom));
+    }
+
+    @Implementation
+    public boolean clipRect(float left, float top, float right, float bottom) {
+        return clip(toRectangle(left, top, right, bottom));
+    }
+
+    @Implementation
+    public boolean clipRect(int left, int top, int right, int bottom) {
+        return clip(toRectangle(left, top, right, bottom));
+    }
+
+    @Implementation
+    public boolean quickReject(RectF rect, Canvas.EdgeType type) {
+        return quickReject(rect.left, rect.top, rect.right, rect.bottom, type);
+    }
+
+    @Implementation
+    public boolean quickReject(Path path, Canvas.EdgeType type) {
+        ShadowJava2DPath shadowPath = Shadow.extract(path);
+        Rectangle2D bounds = shadowPath.getJava2DPath().getBounds2D();
+        return quickReject((float) bounds.getMinX(), (float) bounds.getMinY(),
+                (float) bounds.getMaxX(), (float) bounds.getMaxY(), type);
+    }
+
+    @Implementation
+    public boolean quickReject(float left, float top, float right, float bottom, Canvas.EdgeType type) {
+        if (left >= right || top >= bottom) {
+            return true;
+        }
+        Rectangle2D device = mTransform.createTransformedShape(toRectangle(left, top, right, bottom)).getBounds2D();
+        Rectangle2D clipBounds = null == mClip ? new Rectangle2D.Float(0, 0, getWidth(), getHeight()) : mClip.getBounds2D();
+        return !device.intersects(clipBounds);
+    }
+
+    @Implementation
+    public void drawColor(final int color) {
+        draw(new Painter() {
+            @Override
+            void paint(Graphics2D g) {
+                g.setTransform(new AffineTransform());
+                g.setColor(new Color(color, true));
+                g.fillRect(0, 0, getWidth(), getHeight());
+            }
+        }, false);
+    }
+
+    @Implementation
+    public void drawPath(Path path, Paint paint) {
+        ShadowJava2DPath shadowPath = Shadow.extract(path);
+        drawShape(shadowPath.getJava2DPath(), paint);
+    }
+
+    @Implementation
+    public void drawRect(RectF rect, Paint paint) {
+        drawShape(toRectangle(rect.left, rect.top, rect.right, rect.bottom), paint);
+    }
+
+    @Implementation
+    public void drawRect(Rect rect, Paint paint) {
+        drawShape(toRectangle(rect.left, rect.top, rect.right, rect.bottom), paint);
+    }
+
+    @Implementation
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        drawShape(toRectangle(left, top, right, bottom), paint);
+    }
+
+    @Implementation
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        drawBitmap(bitmap, new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()),
+                new RectF(left, top, left + bitmap.getWidth(), top + bitmap.getHeight()), paint);
+    }
+
+    @Implementation
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        drawBitmap(bitmap, src, new RectF(dst), paint);
+    }
+
+    @Implementation
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        ShadowJava2DBitmap shadowBitmap = Shadow.extract(bitmap);
+        final BufferedImage image = shadowBitmap.getImage();
+        final Rect source = null == src ? new Rect(0, 0, bitmap.getWidth(), bitmap.getHeight()) : src;
+        final AffineTransform sourceToDest = new AffineTransform();
+        sourceToDest.translate(dst.left, dst.top);
+        sourceToDest.scale(dst.width() / source.width(), dst.height() / source.height());
+        final BufferedImage sourceImage = image.getSubimage(source.left, source.top, source.width(), source.height());
+        final Shape destShape = toRectangle(dst.left, dst.top, dst.right, dst.bottom);
+        final float alpha = null == paint ? 1f : paint.getAlpha() / 255f;
+        final boolean filter = null != paint && paint.isFilterBitmap();
+        if (Bitmap.Config.ALPHA_8 != bitmap.getConfig()) {
+            draw(new Painter() {
+                @Override
+                void paint(Graphics2D g) {
+                    setFilter(g, filter);
+                    g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+                    g.drawImage(sourceImage, sourceToDest, null);
+                }
+            }, false);
+            return;
+        }
+        // an alpha mask is colored by the Paint, the color or shader masked by the alpha of pixels
+        final java.awt.Paint fill = null == paint ? Color.BLACK : toJava2DPaint(paint);
+        final float fillAlpha = null == paint || null == paint.getShader() ? 1f : alpha;
+        draw(new Painter() {
+            @Override
+            void paint(Graphics2D g) {
+                BufferedImage colored = newLayer();
+                Graphics2D layer = colored.createGraphics();
+                try {
+                    layer.setTransform(g.getTransform());
+                    setFilter(layer, filter);
+                    layer.setPaint(fill);
+                    layer.fill(destShape);
+                    layer.setComposite(AlphaComposite.DstIn);
+                    layer.drawImage(sourceImage, sourceToDest, null);
+                } finally {
+                    layer.dispose();
+                }
+                g.setTransform(new AffineTransform());
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, fillAlpha));
+                g.drawImage(colored, 0, 0, null);
+            }
+        }, false);
+    }
+
+    @Implementation
+    public void drawPicture(Picture picture) {
+        ShadowJava2DPicture shadowPicture = Shadow.extract(picture);
+        if (null != shadowPicture.getBitmap()) {
+            drawBitmap(shadowPicture.getBitmap(), 0, 0, null);
+        }
+    }
+
+    /**
+     * Return the pixels drawn into.
+     *
+     * @return BufferedImage
+     */
+    public BufferedImage getImage() {
+        ShadowJava2DBitmap shadowBitmap = Shadow.extract(mBitmap);
+        return shadowBitmap.getImage();
+    }
+
+    private void drawShape(final Shape shape, final Paint paint) {
+        final java.awt.Paint fill = toJava2DPaint(paint);
+        final float alpha = null == paint.getShader() ? 1f : paint.getAlpha() / 255f;
+        final boolean stroke = Paint.Style.STROKE == paint.getStyle();
+        final float strokeWidth = paint.getStrokeWidth();
+        draw(new Painter() {
+            @Override
+            void paint(Graphics2D g) {
+                g.setPaint(fill);
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+                if (stroke) {
+                    g.setStroke(new BasicStroke(strokeWidth));
+                    g.draw(shape);
+                } else {
+                    g.fill(shape);
+                }
+            }
+        }, paint.isAntiAlias());
+    }
+
+    /**
+     * Draw into the image of Bitmap, through a masked layer when clipped.
+     */
+    private void draw(Painter painter, boolean antiAlias) {
+        BufferedImage target = getImage();
+        if (null == mClip) {
+            Graphics2D g = target.createGraphics();
+            try {
+                setUp(g, antiAlias);
+                painter.paint(g);
+            } finally {
+                g.dispose();
+            }
+            return;
+        }
+        BufferedImage layer = newLayer();
+        Graphics2D g = layer.createGraphics();
+        try {
+            setUp(g, antiAlias);
+            painter.paint(g);
+            g.setTransform(new AffineTransform());
+            g.setComposite(AlphaComposite.DstIn);
+            g.drawImage(getClipMask(), 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        Graphics2D t = target.createGraphics();
+        try {
+            t.drawImage(layer, 0, 0, null);
+        } finally {
+            t.dispose();
+        }
+    }
+
+    private void setUp(Graphics2D g, boolean antiAlias) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                antiAlias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.setTransform(mTransform);
+    }
+
+    private static void setFilter(Graphics2D g, boolean filter) {
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, filter
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+    }
+
+    private BufferedImage newLayer() {
+        return new BufferedImage(Math.max(1, getWidth()), Math.max(1, getHeight()), BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private boolean clip(Shape shape) {
+        Area area = new Area(mTransform.createTransformedShape(shape));
+        if (null == mClip) {
+            area.intersect(new Area(new Rectangle2D.Float(0, 0, getWidth(), getHeight())));
+        } else {
+            area.intersect(mClip);
+        }
+        mClip = area;
+        mClipMask = null;
+        return !area.isEmpty();
+    }
+
+    private BufferedImage getClipMask() {
+        if (null == mClipMask) {
+            mClipMask = newLayer();
+            Graphics2D g = mClipMask.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setColor(Color.WHITE);
+                g.fill(mClip);
+            } finally {
+                g.dispose();
+            }
+        }
+        return mClipMask;
+    }
+
+    private static java.awt.Paint toJava2DPaint(Paint paint) {
+        Shader shader = paint.getShader();
+        if (null == shader) {
+            return new Color(paint.getColor(), true);
+        }
+        AffineTransform localMatrix = new AffineTransform();
+        Matrix matrix = new Matrix();
+        if (shader.getLocalMatrix(matrix)) {
+            float[] values = new float[9];
+            matrix.getValues(values);
+            localMatrix.setTransform(values[Matrix.MSCALE_X], values[Matrix.MSKEW_Y], values[Matrix.MSKEW_X],
+                    values[Matrix.MSCALE_Y], values[Matrix.MTRANS_X], values[Matrix.MTRANS_Y]);
+        }
+        Object shadowShader = Shadow.extract(shader);
+        if (shadowShader instanceof ShadowJava2DLinearGradient) {
+            return ((ShadowJava2DLinearGradient) shadowShader).toJava2DPaint(localMatrix);
+        }
+        if (shadowShader instanceof ShadowJava2DBitmapShader) {
+            return ((ShadowJava2DBitmapShader) shadowShader).toJava2DPaint(localMatrix);
+        }
+        throw new UnsupportedOperationException("Unsupported shader " + shader);
+    }
+
+    private static Rectangle2D.Float toRectangle(float left, float top, float right, float bottom) {
+        return new Rectangle2D.Float(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * The draw call, painting in the space of canvas.
+     */
+    private abstract static class Painter {
+        abstract void paint(Graphics2D g);
+    }
+
+    /**
+     * The saved transform and clip.
+     */
+    private static class State {
+        private final AffineTransform transform;
+        private final Area clip;
+        private final BufferedImage clipMask;
+
+        private State(AffineTransform transform, Area clip, BufferedImage clipMask) {
+            this.transform = transform;
+            this.clip = clip;
+            this.clipMask = clipMask;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.LinearGradient;
+import android.graphics.Shader;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+import java.awt.Color;
+import java.awt.LinearGradientPaint;
+import java.awt.MultipleGradientPaint;
+import java.awt.Paint;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+
+/**
+ * <p>The shadow of LinearGradient which keeps its stops, so it can be turned into a Java2D
+ * gradient.</p>
+ **/
+@Implements(LinearGradient.class)
+public class ShadowJava2DLinearGradient {
+
+    private float mX0;
+    private float mY0;
+    private float mX1;
+    private float mY1;
+    private int[] mColors;
+    private float[] mPositions;
+    private Shader.TileMode mTileMode;
+
+    @Implementation
+    public void __constructor__(float x0, float y0, float x1, float y1, int[] colors, float[] positions,
+            Shader.TileMode tile) {
+        this.mX0 = x0;
+        this.mY0 = y0;
+        this.mX1 = x1;
+        this.mY1 = y1;
+        this.mColors = colors.clone();
+        this.mPositions = null == positions ? null : positions.clone();
+        this.mTileMode = tile;
+    }
+
+    @Implementation
+    public void __constructor__(float x0, float y0, float x1, float y1, int color0, int color1,
+            Shader.TileMode tile) {
+        __constructor__(x0, y0, x1, y1, new int[]{color0, color1}, null, tile);
+    }
+
+    /**
+     * Return the Java2D gradient.
+     *
+     * @param localMatrix the local matrix of shader
+     * @return Paint
+     */
+    public Paint toJava2DPaint(AffineTransform localMatrix) {
+        float[] fractions = new float[mColors.length];
+        Color[] colors = new Color[mColors.length];
+        for (int i = 0; i < mColors.length; i++) {
+            fractions[i] = null == mPositions ? (float) i / (mColors.length - 1) : mPositions[i];
+            colors[i] = new Color(mColors[i], true);
+        }
+        MultipleGradientPaint.CycleMethod cycleMethod;
+        if (Shader.TileMode.REPEAT == mTileMode) {
+            cycleMethod = MultipleGradientPaint.CycleMethod.REPEAT;
+        } else if (Shader.TileMode.MIRROR == mTileMode) {
+            cycleMethod = MultipleGradientPaint.CycleMethod.REFLECT;
+        } else {
+            cycleMethod = MultipleGradientPaint.CycleMethod.NO_CYCLE;
+        }
+        return new LinearGradientPaint(new Point2D.Float(mX0, mY0), new Point2D.Float(mX1, mY1), fractions, colors,
+                cycleMethod, MultipleGradientPaint.ColorSpaceType.SRGB, localMatrix);
+    }
+}
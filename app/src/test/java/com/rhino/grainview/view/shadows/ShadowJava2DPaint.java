@@ -0,0 +1,39 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowPaint;
+
+/**
+ * <p>The shadow of Paint whose alpha is the alpha of its color, starting opaque black the
+ * same as Android, so a Paint only given a shader is drawn opaque by
+ * {@link ShadowJava2DCanvas}. The Paint of Robolectric keeps the two apart, starting at 0.</p>
+ **/
+@Implements(Paint.class)
+public class ShadowJava2DPaint extends ShadowPaint {
+
+    @Override
+    @Implementation
+    public void __constructor__(int flags) {
+        super.__constructor__(flags);
+        setColor(Color.BLACK);
+    }
+
+    @Override
+    @Implementation
+    public void setColor(int color) {
+        super.setColor(color);
+        super.setAlpha(Color.alpha(color));
+    }
+
+    @Override
+    @Implementation
+    public void setAlpha(int alpha) {
+        super.setColor((alpha << 24) | (getColor() & 0x00FFFFFF));
+        super.setAlpha(alpha);
+    }
+}
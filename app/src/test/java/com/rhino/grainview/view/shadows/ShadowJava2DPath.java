@@ -0,0 +1,123 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadow.api.Shadow;
+
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * <p>The shadow of Path which keeps the outline as a Java2D path, arcs included, so it can
+ * be rasterized by {@link ShadowJava2DCanvas}.</p>
+ **/
+@Implements(Path.class)
+public class ShadowJava2DPath {
+
+    private Path2D.Float mPath = new Path2D.Float(Path2D.WIND_NON_ZERO);
+    private Path.FillType mFillType = Path.FillType.WINDING;
+
+    @Implementation
+    public void __constructor__() {
+    }
+
+    @Implementation
+    public void __constructor__(Path src) {
+        ShadowJava2DPath shadowSrc = Shadow.extract(src);
+        mPath = new Path2D.Float(shadowSrc.mPath);
+        mFillType = shadowSrc.mFillType;
+    }
+
+    @Implementation
+    public void moveTo(float x, float y) {
+        mPath.moveTo(x, y);
+    }
+
+    @Implementation
+    public void lineTo(float x, float y) {
+        ensureMoveTo();
+        mPath.lineTo(x, y);
+    }
+
+    /**
+     * Android arc angles grow clockwise on screen while Java2D arc angles grow counter
+     * clockwise, so the angles are negated.
+     */
+    @Implementation
+    public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle,
+            boolean forceMoveTo) {
+        Arc2D.Float arc = new Arc2D.Float(left, top, right - left, bottom - top, -startAngle, -sweepAngle, Arc2D.OPEN);
+        mPath.append(arc, !forceMoveTo && null != mPath.getCurrentPoint());
+    }
+
+    @Implementation
+    public void close() {
+        if (null != mPath.getCurrentPoint()) {
+            mPath.closePath();
+        }
+    }
+
+    @Implementation
+    public void reset() {
+        mPath.reset();
+        mFillType = Path.FillType.WINDING;
+        mPath.setWindingRule(Path2D.WIND_NON_ZERO);
+    }
+
+    @Implementation
+    public void rewind() {
+        mPath.reset();
+    }
+
+    @Implementation
+    public void addPath(Path src) {
+        ShadowJava2DPath shadowSrc = Shadow.extract(src);
+        mPath.append(shadowSrc.mPath, false);
+    }
+
+    @Implementation
+    public void setFillType(Path.FillType fillType) {
+        mFillType = fillType;
+        mPath.setWindingRule(Path.FillType.EVEN_ODD == fillType ? Path2D.WIND_EVEN_ODD : Path2D.WIND_NON_ZERO);
+    }
+
+    @Implementation
+    public Path.FillType getFillType() {
+        return mFillType;
+    }
+
+    @Implementation
+    public boolean isEmpty() {
+        return null == mPath.getCurrentPoint();
+    }
+
+    @Implementation
+    public void computeBounds(RectF bounds, boolean exact) {
+        if (isEmpty()) {
+            bounds.setEmpty();
+            return;
+        }
+        Rectangle2D rect = mPath.getBounds2D();
+        bounds.set((float) rect.getMinX(), (float) rect.getMinY(), (float) rect.getMaxX(), (float) rect.getMaxY());
+    }
+
+    /**
+     * Return the outline.
+     *
+     * @return Path2D, must not be modified
+     */
+    public Path2D.Float getJava2DPath() {
+        return mPath;
+    }
+
+    private void ensureMoveTo() {
+        if (null == mPath.getCurrentPoint()) {
+            mPath.moveTo(0, 0);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.rhino.grainview.view.shadows;
+
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+/**
+ * <p>The shadow of Picture which records into a Bitmap of its size, so replaying it draws
+ * the recorded pixels, see {@link ShadowJava2DCanvas}.</p>
+ **/
+@Implements(Picture.class)
+public class ShadowJava2DPicture {
+
+    private Bitmap mBitmap;
+    private int mWidth;
+    private int mHeight;
+
+    @Implementation
+    public void __constructor__(long nativePicture) {
+    }
+
+    @Implementation
+    public Canvas beginRecording(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mBitmap = Bitmap.createBitmap(Math.max(1, width), Math.max(1, height), Bitmap.Config.ARGB_8888);
+        return new Canvas(mBitmap);
+    }
+
+    @Implementation
+    public void endRecording() {
+    }
+
+    @Implementation
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Implementation
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Return the recorded pixels.
+     *
+     * @return Bitmap, null before recording
+     */
+    public Bitmap getBitmap() {
+        return mBitmap;
+    }
+}
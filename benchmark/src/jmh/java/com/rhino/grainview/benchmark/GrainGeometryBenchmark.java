@@ -0,0 +1,103 @@
+package com.rhino.grainview.benchmark;
+
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainGeometrySnapshot;
+import com.rhino.grainview.view.geometry.GrainPathBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>The benchmarks of the platform independent {@link GrainGeometry}.</p>
+ **/
+@State(Scope.Thread)
+public class GrainGeometryBenchmark {
+
+    /**
+     * The ratio of height for width, the same as GrainView.
+     */
+    private static final float HEIGHT_RATIO_FOR_WIDTH = 0.8333F;
+
+    /**
+     * The width of view, from phone to tablet.(dp)
+     */
+    @Param({"360", "600", "800"})
+    public int widthDp;
+    /**
+     * The density of display.
+     */
+    @Param({"2.0", "3.0"})
+    public float density;
+
+    private int mWidth;
+    private int mHeight;
+    private GrainGeometry mGeometry;
+    private GrainPathBuffer mBuffer;
+    private ExecutorService mExecutor;
+    private GrainGeometrySnapshot[] mBatch;
+
+    @Setup
+    public void setup() {
+        mWidth = (int) (widthDp * density + 0.5f);
+        mHeight = (int) (mWidth * HEIGHT_RATIO_FOR_WIDTH);
+        mGeometry = new GrainGeometry();
+        mBuffer = new GrainPathBuffer();
+        mGeometry.measure(mWidth, mHeight, density);
+        mGeometry.buildAllBands(mBuffer);
+        mExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        // the sizes of a grid, from a quarter to the full width
+        GrainGeometry geometry = new GrainGeometry();
+        mBatch = new GrainGeometrySnapshot[16];
+        for (int i = 0; i < mBatch.length; i++) {
+            int width = mWidth * (i + 4) / 19;
+            geometry.measure(width, (int) (width * HEIGHT_RATIO_FOR_WIDTH), density);
+            mBatch[i] = geometry.snapshot();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mExecutor.shutdown();
+    }
+
+    @Benchmark
+    public GrainGeometry measure() {
+        mGeometry.measure(mWidth, mHeight, density);
+        return mGeometry;
+    }
+
+    /**
+     * The full rebuild of all 14 outlines into the reused command buffer.
+     */
+    @Benchmark
+    public GrainPathBuffer rebuildBuffer() {
+        mGeometry.measure(mWidth, mHeight, density);
+        mBuffer.reset();
+        mGeometry.buildAllBands(mBuffer);
+        return mBuffer;
+    }
+
+    /**
+     * The outlines of 16 sizes built one after another on the benchmark thread.
+     */
+    @Benchmark
+    public GrainPathBuffer[][] buildBatch() {
+        return GrainGeometrySnapshot.buildBands(mBatch);
+    }
+
+    /**
+     * The outlines of 16 sizes built as independent tasks on a pool of all cores.
+     */
+    @Benchmark
+    public GrainPathBuffer[][] buildBatchParallel() throws InterruptedException {
+        return GrainGeometrySnapshot.buildBands(mExecutor, mBatch);
+    }
+}
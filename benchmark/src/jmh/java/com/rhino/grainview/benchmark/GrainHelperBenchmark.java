@@ -0,0 +1,134 @@
+package com.rhino.grainview.benchmark;
+
+
+import android.content.Context;
+import android.graphics.Path;
+
+import com.rhino.grainview.view.GrainHelper;
+import com.rhino.grainview.view.GrainPathPoint;
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainPathSink;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>The benchmarks of {@link GrainHelper} and {@link GrainPathPoint} against the recording
+ * stand-in of android Path.</p>
+ **/
+@State(Scope.Thread)
+public class GrainHelperBenchmark {
+
+    /**
+     * The ratio of height for width, the same as GrainView.
+     */
+    private static final float HEIGHT_RATIO_FOR_WIDTH = 0.8333F;
+
+    /**
+     * The width of view, from phone to tablet.(dp)
+     */
+    @Param({"360", "600", "800"})
+    public int widthDp;
+    /**
+     * The density of display.
+     */
+    @Param({"2.0", "3.0"})
+    public float density;
+
+    private Context mContext;
+    private int mWidth;
+    private int mHeight;
+    private GrainHelper mGrainHelper;
+    private Path[] mBandPaths;
+    private Path mClipPath;
+    private List<GrainPathPoint> mPathPoints;
+
+    @Setup
+    public void setup() {
+        mContext = new Context(density);
+        mWidth = (int) (widthDp * density + 0.5f);
+        mHeight = (int) (mWidth * HEIGHT_RATIO_FOR_WIDTH);
+        mGrainHelper = new GrainHelper();
+        mGrainHelper.measure(mContext, mWidth, mHeight);
+        mBandPaths = new Path[GrainGeometry.BAND_COUNT];
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            mBandPaths[band] = new Path();
+        }
+        mClipPath = new Path();
+        mPathPoints = new ArrayList<>();
+        mGrainHelper.getGeometry().buildGrainPath1FromLeft(false, new GrainPathSink() {
+            @Override
+            public void moveTo(float x, float y) {
+                mPathPoints.add(GrainPathPoint.newPoint(x, y));
+            }
+
+            @Override
+            public void lineTo(float x, float y) {
+                mPathPoints.add(GrainPathPoint.newPoint(x, y));
+            }
+
+            @Override
+            public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+                mPathPoints.add(GrainPathPoint.newArc(left, top, right, bottom, startAngle, sweepAngle));
+            }
+        });
+    }
+
+    @Benchmark
+    public GrainHelper measure() {
+        mGrainHelper.measure(mContext, mWidth, mHeight);
+        return mGrainHelper;
+    }
+
+    /**
+     * The full rebuild through the Path getters of {@link GrainHelper}, every outline is a new
+     * Path and the bands are copied with addPath, the allocations of GrainView.initView before
+     * the Paths were reused. The outlines are built by {@link GrainGeometry}, so it is not a
+     * measurement of the original GrainHelper code.
+     */
+    @Benchmark
+    public Path rebuildAllocating() {
+        GrainHelper helper = mGrainHelper;
+        helper.measure(mContext, mWidth, mHeight);
+        Path clipPath = new Path();
+        for (int i = 1; i <= 2; i++) {
+            boolean inverted = 2 == i;
+            clipPath.addPath(merge(helper.getGrainPath1FromLeft(inverted), helper.getGrainPath1FromRight(inverted)));
+            clipPath.addPath(merge(helper.getGrainPath2FromLeft(inverted), helper.getGrainPath2FromRight(inverted)));
+            clipPath.addPath(merge(helper.getGrainPath3FromLeft(inverted), helper.getGrainPath3FromRight(inverted)));
+        }
+        clipPath.addPath(merge(helper.getGrainTop4Path(), helper.getGrainBottom4Path()));
+        return clipPath;
+    }
+
+    /**
+     * The full rebuild into reused Paths.
+     */
+    @Benchmark
+    public Path rebuildReusing() {
+        mGrainHelper.measure(mContext, mWidth, mHeight);
+        mClipPath.rewind();
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            mClipPath.addPath(mGrainHelper.buildBandPath(band, mBandPaths[band]));
+        }
+        return mClipPath;
+    }
+
+    @Benchmark
+    public Path pathPointAllocating() {
+        return GrainPathPoint.getGrainPath(mPathPoints);
+    }
+
+    private static Path merge(Path first, Path second) {
+        Path path = new Path();
+        path.addPath(first);
+        path.addPath(second);
+        return path;
+    }
+}
@@ -0,0 +1,19 @@
+package android.content;
+
+import android.content.res.Resources;
+
+/**
+ * <p>The stand-in of android Context, only the density of display is provided.</p>
+ **/
+public class Context {
+
+    private final Resources mResources = new Resources();
+
+    public Context(float density) {
+        mResources.getDisplayMetrics().density = density;
+    }
+
+    public Resources getResources() {
+        return mResources;
+    }
+}
@@ -0,0 +1,15 @@
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * <p>The stand-in of android Resources.</p>
+ **/
+public class Resources {
+
+    private final DisplayMetrics mDisplayMetrics = new DisplayMetrics();
+
+    public DisplayMetrics getDisplayMetrics() {
+        return mDisplayMetrics;
+    }
+}
@@ -0,0 +1,137 @@
+package android.graphics;
+
+import java.util.Arrays;
+
+/**
+ * <p>The recording stand-in of android Path.</p>
+ * <p>It keeps every verb and its operands in growable primitive arrays, so the cost of
+ * feeding a Path is measured without the native rasterizer. {@link #rewind()} keeps the
+ * arrays like the native Path keeps its storage.</p>
+ **/
+public class Path {
+
+    public enum FillType {
+        WINDING,
+        EVEN_ODD,
+        INVERSE_WINDING,
+        INVERSE_EVEN_ODD
+    }
+
+    public static final byte VERB_MOVE = 0;
+    public static final byte VERB_LINE = 1;
+    public static final byte VERB_ARC = 2;
+
+    private byte[] mVerbs = new byte[16];
+    private int mVerbCount;
+    private float[] mCoords = new float[64];
+    private int mCoordCount;
+    private FillType mFillType = FillType.WINDING;
+
+    public Path() {
+    }
+
+    public void setFillType(FillType fillType) {
+        mFillType = fillType;
+    }
+
+    public FillType getFillType() {
+        return mFillType;
+    }
+
+    public void moveTo(float x, float y) {
+        record(VERB_MOVE, 2);
+        mCoords[mCoordCount++] = x;
+        mCoords[mCoordCount++] = y;
+    }
+
+    public void lineTo(float x, float y) {
+        record(VERB_LINE, 2);
+        mCoords[mCoordCount++] = x;
+        mCoords[mCoordCount++] = y;
+    }
+
+    public void arcTo(RectF oval, float startAngle, float sweepAngle) {
+        record(VERB_ARC, 6);
+        mCoords[mCoordCount++] = oval.left;
+        mCoords[mCoordCount++] = oval.top;
+        mCoords[mCoordCount++] = oval.right;
+        mCoords[mCoordCount++] = oval.bottom;
+        mCoords[mCoordCount++] = startAngle;
+        mCoords[mCoordCount++] = sweepAngle;
+    }
+
+    public void addPath(Path src) {
+        ensureCapacity(src.mVerbCount, src.mCoordCount);
+        System.arraycopy(src.mVerbs, 0, mVerbs, mVerbCount, src.mVerbCount);
+        System.arraycopy(src.mCoords, 0, mCoords, mCoordCount, src.mCoordCount);
+        mVerbCount += src.mVerbCount;
+        mCoordCount += src.mCoordCount;
+    }
+
+    public void rewind() {
+        mVerbCount = 0;
+        mCoordCount = 0;
+    }
+
+    public void reset() {
+        rewind();
+    }
+
+    public boolean isEmpty() {
+        return 0 == mVerbCount;
+    }
+
+    /**
+     * Compute the bounds of the points recorded, an arc is bounded by its oval.
+     */
+    public void computeBounds(RectF bounds, boolean exact) {
+        if (0 == mVerbCount) {
+            bounds.set(0, 0, 0, 0);
+            return;
+        }
+        bounds.set(Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE);
+        for (int verb = 0, coord = 0; verb < mVerbCount; verb++) {
+            int end = coord + (VERB_ARC == mVerbs[verb] ? 4 : 2);
+            for (; coord < end; coord += 2) {
+                bounds.left = Math.min(bounds.left, mCoords[coord]);
+                bounds.top = Math.min(bounds.top, mCoords[coord + 1]);
+                bounds.right = Math.max(bounds.right, mCoords[coord]);
+                bounds.bottom = Math.max(bounds.bottom, mCoords[coord + 1]);
+            }
+            if (VERB_ARC == mVerbs[verb]) {
+                // skip the angles
+                coord += 2;
+            }
+        }
+    }
+
+    public int getVerbCount() {
+        return mVerbCount;
+    }
+
+    public byte getVerb(int index) {
+        return mVerbs[index];
+    }
+
+    public int getCoordCount() {
+        return mCoordCount;
+    }
+
+    public float getCoord(int index) {
+        return mCoords[index];
+    }
+
+    private void record(byte verb, int coordCount) {
+        ensureCapacity(1, coordCount);
+        mVerbs[mVerbCount++] = verb;
+    }
+
+    private void ensureCapacity(int verbCount, int coordCount) {
+        if (mVerbCount + verbCount > mVerbs.length) {
+            mVerbs = Arrays.copyOf(mVerbs, Math.max(mVerbs.length * 2, mVerbCount + verbCount));
+        }
+        if (mCoordCount + coordCount > mCoords.length) {
+            mCoords = Arrays.copyOf(mCoords, Math.max(mCoords.length * 2, mCoordCount + coordCount));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package android.util;
+
+/**
+ * <p>The stand-in of android DisplayMetrics.</p>
+ **/
+public class DisplayMetrics {
+    public float density = 1f;
+}
@@ -0,0 +1,99 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.RectF;
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainPolyline;
+import com.rhino.grainview.view.geometry.GrainSpec;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>The tests of hit testing a {@link GrainPathSet}, the work of
+ * {@link GrainView#isPointInGrain(float, float)}.</p>
+ * <p>With the arcs kept, a point inside the bounds of a band but outside its outline must not
+ * hit, the same as a set flattened with the default tolerance, before and after the set is
+ * built again with other heights.</p>
+ **/
+public class GrainPathSetContainsTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 900;
+    private static final float DENSITY = 3f;
+    private static final float STEP = 4f;
+
+    @Test
+    public void containsArcs_equalsFlattened() {
+        float[] ratios = ratios(0.1f, 0f);
+        assertSameHits(new GrainPathSet().build(newHelper(GrainPolyline.DEFAULT_TOLERANCE, ratios)),
+                new GrainPathSet().build(newHelper(0, ratios)));
+    }
+
+    @Test
+    public void containsArcs_rebuilt_equalsFlattened() {
+        GrainHelper helper = newHelper(0, ratios(0.1f, 0f));
+        GrainPathSet pathSet = new GrainPathSet().build(helper);
+        // flatten for hit testing before the heights change
+        pathSet.contains(WIDTH / 2f, HEIGHT / 2f);
+        float[] ratios = ratios(0.1f, 0.3f);
+        helper.setPeakHeightRatios(ratios);
+        pathSet.build(helper);
+
+        assertSameHits(new GrainPathSet().build(newHelper(GrainPolyline.DEFAULT_TOLERANCE, ratios)), pathSet);
+    }
+
+    /**
+     * Compare the hits of both sets on a grid over the view, and check some points inside
+     * the bounds of a band are missed.
+     */
+    private static void assertSameHits(GrainPathSet expected, GrainPathSet actual) {
+        int missedInBounds = 0;
+        int hits = 0;
+        for (float y = 0; y < HEIGHT; y += STEP) {
+            for (float x = 0; x < WIDTH; x += STEP) {
+                boolean hit = actual.contains(x, y);
+                assertEquals("hit at " + x + ", " + y, expected.contains(x, y), hit);
+                if (hit) {
+                    hits++;
+                } else if (isInBandBounds(actual, x, y)) {
+                    missedInBounds++;
+                }
+            }
+        }
+        assertTrue("no hit", 0 < hits);
+        assertTrue("only the bounds of bands are tested", 0 < missedInBounds);
+    }
+
+    private static boolean isInBandBounds(GrainPathSet pathSet, float x, float y) {
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            RectF bounds = pathSet.getBandBounds(band);
+            if (bounds.contains(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static GrainHelper newHelper(float flatteningTolerance, float[] ratios) {
+        GrainHelper helper = new GrainHelper();
+        helper.setArcFlatteningTolerance(flatteningTolerance);
+        helper.measure(WIDTH, HEIGHT, DENSITY);
+        helper.setPeakHeightRatios(ratios);
+        return helper;
+    }
+
+    /**
+     * Return the ratios of peaks, growing by the step from the first.
+     */
+    private static float[] ratios(float first, float step) {
+        float[] ratios = new float[GrainSpec.PEAK_COUNT];
+        for (int peak = 0; peak < ratios.length; peak++) {
+            ratios[peak] = first + step * peak / ratios.length;
+        }
+        return ratios;
+    }
+}
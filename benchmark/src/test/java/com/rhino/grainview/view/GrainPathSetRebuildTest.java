@@ -0,0 +1,132 @@
+package com.rhino.grainview.view;
+
+
+import android.graphics.Path;
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+import com.rhino.grainview.view.geometry.GrainPolyline;
+import com.rhino.grainview.view.geometry.GrainSpec;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>The tests of building an own {@link GrainPathSet} again on every frame, the work of
+ * {@link GrainView#setPeakHeightRatios(float, float, float, float)} on the UI thread.</p>
+ * <p>The Paths are the recording stand-ins of the benchmarks, which keep their storage when
+ * rewound like the native Path. The bytes allocated by the thread over a run of frames are
+ * counted by the JVM and must be zero, with the arcs kept and flattened, and the Paths must
+ * record the same verbs and points as a set built from scratch with the same heights.</p>
+ **/
+public class GrainPathSetRebuildTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 900;
+    private static final float DENSITY = 3f;
+    private static final int WARMUP_FRAME_COUNT = 100000;
+    private static final int FRAME_COUNT = 600;
+
+    private final float[] mRatios = new float[GrainSpec.PEAK_COUNT];
+
+    @Test
+    public void rebuildArcs_allocatesNothing() {
+        assertRebuildAllocatesNothing(0);
+    }
+
+    @Test
+    public void rebuildFlattened_allocatesNothing() {
+        assertRebuildAllocatesNothing(GrainPolyline.DEFAULT_TOLERANCE);
+    }
+
+    @Test
+    public void rebuildArcs_equalsFreshBuild() {
+        assertRebuildEqualsFreshBuild(0);
+    }
+
+    @Test
+    public void rebuildFlattened_equalsFreshBuild() {
+        assertRebuildEqualsFreshBuild(GrainPolyline.DEFAULT_TOLERANCE);
+    }
+
+    private void assertRebuildAllocatesNothing(float flatteningTolerance) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        GrainHelper helper = newHelper(flatteningTolerance);
+        GrainPathSet pathSet = new GrainPathSet().build(helper);
+        // let the JIT compile the frame and the Paths grow to their size before counting
+        runFrames(helper, pathSet, 0, WARMUP_FRAME_COUNT);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        runFrames(helper, pathSet, WARMUP_FRAME_COUNT, FRAME_COUNT);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+        assertEquals("bytes allocated in " + FRAME_COUNT + " frames", 0, allocated);
+    }
+
+    private void assertRebuildEqualsFreshBuild(float flatteningTolerance) {
+        GrainHelper helper = newHelper(flatteningTolerance);
+        GrainPathSet pathSet = new GrainPathSet().build(helper);
+        runFrames(helper, pathSet, 0, 37);
+
+        GrainHelper expectedHelper = newHelper(flatteningTolerance);
+        expectedHelper.setPeakHeightRatios(mRatios);
+        GrainPathSet expected = new GrainPathSet().build(expectedHelper);
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            Path expectedPath = expected.getBandPath(band);
+            Path actualPath = pathSet.getBandPath(band);
+            assertArrayEquals("verbs of band " + band, verbs(expectedPath), verbs(actualPath));
+            assertArrayEquals("points of band " + band, coords(expectedPath), coords(actualPath), 1e-3f);
+        }
+        assertArrayEquals(verbs(expected.getClipPath()), verbs(pathSet.getClipPath()));
+        assertArrayEquals(coords(expected.getClipPath()), coords(pathSet.getClipPath()), 1e-3f);
+    }
+
+    private static GrainHelper newHelper(float flatteningTolerance) {
+        GrainHelper helper = new GrainHelper();
+        helper.setArcFlatteningTolerance(flatteningTolerance);
+        helper.measure(WIDTH, HEIGHT, DENSITY);
+        return helper;
+    }
+
+    /**
+     * Drive the peaks by a meter like signal and build the set again, as one frame each.
+     */
+    private void runFrames(GrainHelper helper, GrainPathSet pathSet, int firstFrame, int count) {
+        for (int frame = firstFrame; frame < firstFrame + count; frame++) {
+            for (int peak = 0; peak < GrainSpec.PEAK_COUNT; peak++) {
+                float level = (float) Math.abs(Math.sin(frame * 0.05 + peak * 0.9));
+                mRatios[peak] = 0.05f + 0.4f * level;
+            }
+            if (helper.setPeakHeightRatios(mRatios)) {
+                pathSet.build(helper);
+            }
+        }
+    }
+
+    private static byte[] verbs(Path path) {
+        byte[] verbs = new byte[path.getVerbCount()];
+        for (int i = 0; i < verbs.length; i++) {
+            verbs[i] = path.getVerb(i);
+        }
+        return verbs;
+    }
+
+    private static float[] coords(Path path) {
+        float[] coords = new float[path.getCoordCount()];
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = path.getCoord(i);
+        }
+        return coords;
+    }
+}
@@ -0,0 +1,121 @@
+package com.rhino.grainview.tools;
+
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * <p>The batch renderer which spreads grain jobs across a fork join pool.</p>
+ * <p>Every worker thread owns one {@link GrainRasterizer} and so at most one image, and each
+ * image is streamed into its PNG file as soon as it is rendered, so the memory stays bounded
+ * by the parallelism no matter how many jobs there are.</p>
+ **/
+public class GrainBatchRenderer {
+
+    /**
+     * The count of jobs rendered by one task without splitting.
+     */
+    private static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final ForkJoinPool mPool;
+    private final File mOutputDir;
+    private final ThreadLocal<GrainRasterizer> mRasterizer = new ThreadLocal<GrainRasterizer>() {
+        @Override
+        protected GrainRasterizer initialValue() {
+            return new GrainRasterizer();
+        }
+    };
+    private final AtomicInteger mRenderedCount = new AtomicInteger();
+
+    /**
+     * @param parallelism the count of worker threads, usually the count of cores
+     * @param outputDir   the directory of PNG files
+     */
+    public GrainBatchRenderer(int parallelism, File outputDir) {
+        this.mPool = new ForkJoinPool(parallelism);
+        this.mOutputDir = outputDir;
+    }
+
+    /**
+     * Render all jobs into PNG files and wait until done.
+     *
+     * @param jobs the jobs
+     * @return the count of rendered files
+     */
+    public int renderAll(List<GrainRasterJob> jobs) throws IOException {
+        if (!mOutputDir.isDirectory() && !mOutputDir.mkdirs()) {
+            throw new IOException("Can not create " + mOutputDir);
+        }
+        mRenderedCount.set(0);
+        try {
+            mPool.invoke(new RenderTask(jobs, 0, jobs.size()));
+        } catch (RenderException e) {
+            throw (IOException) e.getCause();
+        }
+        return mRenderedCount.get();
+    }
+
+    /**
+     * Shut down the pool.
+     */
+    public void shutdown() {
+        mPool.shutdown();
+    }
+
+    private void renderOne(GrainRasterJob job) {
+        BufferedImage image = mRasterizer.get().render(job);
+        try {
+            ImageIO.write(image, "png", new File(mOutputDir, job.getFileName()));
+        } catch (IOException e) {
+            throw new RenderException(e);
+        }
+        mRenderedCount.incrementAndGet();
+    }
+
+    /**
+     * Carry an IOException of a worker out of the pool.
+     */
+    private static class RenderException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        RenderException(IOException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * The task rendering a range of jobs, split in halves until small enough.
+     */
+    private class RenderTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<GrainRasterJob> jobs;
+        private final int from;
+        private final int to;
+
+        RenderTask(List<GrainRasterJob> jobs, int from, int to) {
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= DEFAULT_LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    renderOne(jobs.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RenderTask(jobs, from, middle), new RenderTask(jobs, middle, to));
+        }
+    }
+}
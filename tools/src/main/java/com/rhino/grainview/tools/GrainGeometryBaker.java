@@ -0,0 +1,82 @@
+package com.rhino.grainview.tools;
+
+
+import com.rhino.grainview.view.geometry.GrainBakedGeometry;
+import com.rhino.grainview.view.geometry.GrainGeometry;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>The command line entry which bakes grain outlines into a {@link GrainBakedGeometry} asset.</p>
+ * <pre>
+ * GrainGeometryBaker --out grain_geometry.bin --widths 360,720,1080 --densities 2,2.625,3 [--lod-tolerance 0.5]
+ * </pre>
+ * <p>One entry is written for every combination of width and density, the height follows
+ * the width the same as GrainView.</p>
+ **/
+public class GrainGeometryBaker {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File out = null;
+        String widths = null;
+        String densities = null;
+        float lodTolerance = GrainGeometry.DEFAULT_LOD_TOLERANCE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String name = args[i];
+            String value = args[i + 1];
+            if ("--out".equals(name)) {
+                out = new File(value);
+            } else if ("--widths".equals(name)) {
+                widths = value;
+            } else if ("--densities".equals(name)) {
+                densities = value;
+            } else if ("--lod-tolerance".equals(name)) {
+                lodTolerance = Float.parseFloat(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        if (null == out || null == widths || null == densities) {
+            throw new IllegalArgumentException("Usage: --out <file> --widths <px,...> --densities <d,...>");
+        }
+
+        String[] widthValues = widths.split(",");
+        String[] densityValues = densities.split(",");
+        int count = widthValues.length * densityValues.length;
+        int[] entryWidths = new int[count];
+        int[] entryHeights = new int[count];
+        float[] entryDensities = new float[count];
+        int entry = 0;
+        for (String width : widthValues) {
+            for (String density : densityValues) {
+                entryWidths[entry] = Integer.parseInt(width.trim());
+                entryHeights[entry] = (int) (entryWidths[entry] * GrainRasterJob.HEIGHT_RATIO_FOR_WIDTH);
+                entryDensities[entry] = Float.parseFloat(density.trim());
+                entry++;
+            }
+        }
+
+        File dir = out.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can not create " + dir);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)));
+            try {
+                GrainBakedGeometry.write(stream, lodTolerance, entryWidths, entryHeights, entryDensities, executor);
+            } finally {
+                stream.close();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("Baked " + count + " sizes into " + out.getAbsolutePath() + ", " + out.length() + " bytes");
+    }
+}
@@ -0,0 +1,59 @@
+package com.rhino.grainview.tools;
+
+
+import java.util.Locale;
+
+/**
+ * <p>One grain image to render.</p>
+ **/
+public class GrainRasterJob {
+
+    /**
+     * The ratio of height for width, the same as GrainView.
+     */
+    public static final float HEIGHT_RATIO_FOR_WIDTH = 0.8333F;
+
+    /**
+     * The width of image.(px)
+     */
+    public final int width;
+    /**
+     * The height of image.(px)
+     */
+    public final int height;
+    /**
+     * The density of display the grain is measured for.
+     */
+    public final float density;
+    /**
+     * The color of background, ARGB.
+     */
+    public final int backgroundColor;
+    /**
+     * The color of grain, ARGB.
+     */
+    public final int grainColor;
+    /**
+     * The phase of flow light, negative for no flow light.
+     */
+    public final float flowLightPhase;
+
+    public GrainRasterJob(int width, float density, int backgroundColor, int grainColor, float flowLightPhase) {
+        this.width = width;
+        this.height = (int) (width * HEIGHT_RATIO_FOR_WIDTH);
+        this.density = density;
+        this.backgroundColor = backgroundColor;
+        this.grainColor = grainColor;
+        this.flowLightPhase = flowLightPhase;
+    }
+
+    /**
+     * Return the file name of the rendered image.
+     *
+     * @return the file name
+     */
+    public String getFileName() {
+        return String.format(Locale.US, "grain_%dx%d_%.2fx_%08X_%08X%s.png", width, height, density,
+                backgroundColor, grainColor, 0 > flowLightPhase ? "" : String.format(Locale.US, "_%03d", (int) (flowLightPhase * 100)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.rhino.grainview.tools;
+
+
+import com.rhino.grainview.view.geometry.GrainGeometry;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * <p>The headless Java2D rasterizer of grain, drawing the same geometry as GrainView.</p>
+ * <p>An instance keeps its geometry, Paths and image for reuse, so it must only be used by
+ * one thread at a time.</p>
+ **/
+public class GrainRasterizer {
+
+    /**
+     * The default color of flow light, the same as GrainView.
+     */
+    private static final int DEFAULT_FLOW_COLOR = 0xFF56DB3C;
+    /**
+     * The ratio of flow light width for height, the same as GrainView.
+     */
+    private static final float DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT = 0.3f;
+    /**
+     * The colors of flow light, the same as GrainView.
+     */
+    private static final Color[] DEFAULT_FLOW_LIGHT_COLORS = new Color[]{
+            new Color(0x01FFFFFF & DEFAULT_FLOW_COLOR, true),
+            new Color(0x88FFFFFF & DEFAULT_FLOW_COLOR, true),
+            new Color(0x01FFFFFF & DEFAULT_FLOW_COLOR, true)};
+    private static final float[] DEFAULT_FLOW_LIGHT_FRACTIONS = new float[]{0f, 0.5f, 1f};
+
+    private final GrainGeometry mGeometry = new GrainGeometry();
+    private final Path2D.Float[] mBandPaths = new Path2D.Float[GrainGeometry.BAND_COUNT];
+    private final Path2D.Float mClipPath = new Path2D.Float(Path2D.WIND_NON_ZERO);
+    private BufferedImage mImage;
+
+    public GrainRasterizer() {
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            mBandPaths[band] = new Path2D.Float(Path2D.WIND_NON_ZERO);
+        }
+    }
+
+    /**
+     * Render the job. The returned image is reused by the next call.
+     *
+     * @param job the GrainRasterJob
+     * @return BufferedImage, valid until the next call
+     */
+    public BufferedImage render(GrainRasterJob job) {
+        int width = job.width;
+        int height = job.height;
+        if (null == mImage || mImage.getWidth() != width || mImage.getHeight() != height) {
+            mImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        buildPaths(width, height, job.density);
+
+        Graphics2D g = mImage.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setColor(new Color(job.backgroundColor, true));
+            g.fillRect(0, 0, width, height);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.translate(0, height / 2);
+
+            g.setColor(new Color(job.grainColor, true));
+            for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+                g.fill(mBandPaths[band]);
+            }
+            if (0 <= job.flowLightPhase) {
+                drawFlowLight(g, width, height, job.flowLightPhase);
+            }
+        } finally {
+            g.dispose();
+        }
+        return mImage;
+    }
+
+    private void buildPaths(int width, int height, float density) {
+        mGeometry.measure(width, height, density);
+        mClipPath.reset();
+        for (int band = 0; band < GrainGeometry.BAND_COUNT; band++) {
+            Path2D.Float path = mBandPaths[band];
+            path.reset();
+            mGeometry.buildBand(band, new Java2DPathSink(path));
+            mClipPath.append(path, false);
+        }
+    }
+
+    private void drawFlowLight(Graphics2D g, int width, int height, float phase) {
+        int top = -height / 2;
+        int bottom = height / 2;
+        int lightWidth = 2 * (int) (DEFAULT_FLOW_LIGHT_WIDTH_RATIO_FOR_HEIGHT * (bottom - top));
+        float period = width + lightWidth;
+        int left = (int) ((phase - (float) Math.floor(phase)) * period - lightWidth);
+        if (0 >= lightWidth) {
+            return;
+        }
+        g.clip(mClipPath);
+        g.setPaint(new LinearGradientPaint(left, 0, left + lightWidth, 0,
+                DEFAULT_FLOW_LIGHT_FRACTIONS, DEFAULT_FLOW_LIGHT_COLORS));
+        g.fill(new Rectangle2D.Float(left, top, lightWidth, bottom - top));
+    }
+}
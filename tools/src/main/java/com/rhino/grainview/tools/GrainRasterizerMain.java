@@ -0,0 +1,78 @@
+package com.rhino.grainview.tools;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>The command line entry of the batch grain rasterizer.</p>
+ * <pre>
+ * GrainRasterizerMain --out build/grain --widths 120,360,1080 --densities 2,3
+ *     --backgrounds FF000000 --colors 66FFFFFF,FF56DB3C --phases 0.25,0.5 --parallelism 8
+ * </pre>
+ * <p>One PNG is written for every combination of width, density, background, color and
+ * phase. Without phases no flow light is drawn.</p>
+ **/
+public class GrainRasterizerMain {
+
+    public static void main(String[] args) throws IOException {
+        File out = new File("grain-out");
+        String widths = "360";
+        String densities = "3";
+        String backgrounds = "00000000";
+        String colors = "66FFFFFF";
+        String phases = null;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String name = args[i];
+            String value = args[i + 1];
+            if ("--out".equals(name)) {
+                out = new File(value);
+            } else if ("--widths".equals(name)) {
+                widths = value;
+            } else if ("--densities".equals(name)) {
+                densities = value;
+            } else if ("--backgrounds".equals(name)) {
+                backgrounds = value;
+            } else if ("--colors".equals(name)) {
+                colors = value;
+            } else if ("--phases".equals(name)) {
+                phases = value;
+            } else if ("--parallelism".equals(name)) {
+                parallelism = Integer.parseInt(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+
+        List<GrainRasterJob> jobs = new ArrayList<>();
+        String[] phaseValues = null == phases ? new String[]{"-1"} : phases.split(",");
+        for (String width : widths.split(",")) {
+            for (String density : densities.split(",")) {
+                for (String background : backgrounds.split(",")) {
+                    for (String color : colors.split(",")) {
+                        for (String phase : phaseValues) {
+                            jobs.add(new GrainRasterJob(Integer.parseInt(width.trim()),
+                                    Float.parseFloat(density.trim()),
+                                    (int) Long.parseLong(background.trim(), 16),
+                                    (int) Long.parseLong(color.trim(), 16),
+                                    Float.parseFloat(phase.trim())));
+                        }
+                    }
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        GrainBatchRenderer renderer = new GrainBatchRenderer(parallelism, out);
+        try {
+            int count = renderer.renderAll(jobs);
+            System.out.println("Rendered " + count + " images into " + out.getAbsolutePath()
+                    + " in " + (System.nanoTime() - start) / 1000000 + " ms with " + parallelism + " threads");
+        } finally {
+            renderer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.rhino.grainview.tools;
+
+
+import com.rhino.grainview.view.geometry.GrainPathSink;
+
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+
+/**
+ * <p>The sink which writes grain outline commands into a Java2D {@link Path2D}.</p>
+ * <p>Android arc angles grow clockwise on screen while Java2D arc angles grow counter
+ * clockwise, so the angles are negated.</p>
+ **/
+public class Java2DPathSink implements GrainPathSink {
+
+    /**
+     * The Path2D to write.
+     */
+    private final Path2D.Float mPath;
+    /**
+     * The reused Arc2D.
+     */
+    private final Arc2D.Float mArc = new Arc2D.Float(Arc2D.OPEN);
+
+    public Java2DPathSink(Path2D.Float path) {
+        this.mPath = path;
+    }
+
+    /**
+     * Return the Path2D to write.
+     *
+     * @return Path2D.Float
+     */
+    public Path2D.Float getPath() {
+        return mPath;
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        mPath.moveTo(x, y);
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        mPath.lineTo(x, y);
+    }
+
+    @Override
+    public void arcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+        mArc.setArc(left, top, right - left, bottom - top, -startAngle, -sweepAngle, Arc2D.OPEN);
+        mPath.append(mArc, true);
+    }
+}